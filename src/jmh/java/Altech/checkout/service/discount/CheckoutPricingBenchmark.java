@@ -0,0 +1,145 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Cart;
+import Altech.checkout.model.CartItem;
+import Altech.checkout.model.Discount;
+import Altech.checkout.model.Product;
+import Altech.checkout.service.pricing.CartPricer;
+import Altech.checkout.service.pricing.PricedCart;
+import Altech.checkout.service.pricing.ReceiptAssembler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing of synthetic carts against synthetic discounts, without Spring or the database.
+ * <p>
+ * Discounts cycle through every {@link Discount.DiscountType} and are split between unscoped,
+ * product-scoped and category-scoped rules, with varying minimum quantities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutPricingBenchmark {
+    private static final int CATEGORIES = 10;
+
+    @Param({"1", "10", "100", "1000"})
+    private int lines;
+
+    @Param({"0", "10", "100", "500"})
+    private int discounts;
+
+    private final CartPricer cartPricer = new CartPricer();
+    private final ReceiptAssembler receiptAssembler = new ReceiptAssembler();
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private Cart cart;
+    private ActiveDiscounts activeDiscounts;
+    private List<Product> products;
+    private int[] groupQuantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        // Roughly two lines per product so discounts are allocated over groups
+        int productCount = Math.max(1, lines / 2);
+        products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setName("Product " + i);
+            product.setCategory("category-" + (i % CATEGORIES));
+            product.setPrice(BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+            products.add(product);
+        }
+
+        cart = new Cart();
+        cart.setId(1L);
+        cart.setCreatedAt(LocalDateTime.now());
+        cart.setUpdatedAt(LocalDateTime.now());
+        groupQuantities = new int[productCount];
+        for (int i = 0; i < lines; i++) {
+            Product product = products.get(i % productCount);
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProduct(product);
+            item.setUnitPrice(product.getPrice());
+            item.setQuantity(1 + random.nextInt(5));
+            cart.getItems().add(item);
+            groupQuantities[i % productCount] += item.getQuantity();
+        }
+
+        DiscountCompiler compiler = new DiscountCompiler(List.of(
+                new PercentageDiscountRule.Factory(),
+                new FixedAmountDiscountRule.Factory(),
+                new BuyXGetYFreeDiscountRule.Factory(),
+                new SecondUnitPercentageDiscountRule.Factory()));
+        Discount.DiscountType[] types = Discount.DiscountType.values();
+        List<DiscountRule> rules = new ArrayList<>(discounts);
+        for (int i = 0; i < discounts; i++) {
+            Discount discount = new Discount();
+            discount.setId((long) i + 1);
+            discount.setName("Discount " + i);
+            discount.setType(types[i % types.length]);
+            discount.setValue(switch (discount.getType()) {
+                case PERCENTAGE, SECOND_UNIT_PERCENTAGE -> BigDecimal.valueOf(5 + random.nextInt(46));
+                case FIXED_AMOUNT -> BigDecimal.valueOf(100 + random.nextInt(5_000), 2);
+                case BUY_X_GET_Y_FREE -> BigDecimal.ZERO;
+            });
+            discount.setMinQuantity(discount.getType() == Discount.DiscountType.BUY_X_GET_Y_FREE
+                    ? 1 + random.nextInt(4)
+                    : random.nextInt(4));
+            switch (i % 3) {
+                case 1 -> discount.setProductIds(Set.of(products.get(random.nextInt(productCount)).getId()));
+                case 2 -> discount.setCategories(Set.of("category-" + random.nextInt(CATEGORIES)));
+                default -> {
+                    // Unscoped, applies to every product
+                }
+            }
+            rules.add(compiler.compile(discount));
+        }
+        activeDiscounts = new ActiveDiscounts(1, rules);
+    }
+
+    /**
+     * Candidate lookup per product group, the part of pricing that scales with the number of discounts.
+     */
+    @Benchmark
+    public void findBestDiscount(Blackhole blackhole) {
+        for (int i = 0; i < groupQuantities.length; i++) {
+            if (groupQuantities[i] > 0) {
+                Product product = products.get(i);
+                blackhole.consume(activeDiscounts.candidates(product.getId(), product.getCategory(), groupQuantities[i]));
+            }
+        }
+    }
+
+    /**
+     * What {@code applyDiscounts} computes before writing the result to the items.
+     */
+    @Benchmark
+    public PricedCart applyDiscounts() {
+        return cartPricer.price(cart, activeDiscounts);
+    }
+
+    /**
+     * What {@code generateReceipt} does on a cache miss, including serialization of the response.
+     */
+    @Benchmark
+    public byte[] generateReceipt() throws Exception {
+        return objectMapper.writeValueAsBytes(receiptAssembler.assemble(cart, cartPricer.price(cart, activeDiscounts)));
+    }
+}
@@ -0,0 +1,151 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Cart;
+import Altech.checkout.model.CartItem;
+import Altech.checkout.model.Discount;
+import Altech.checkout.model.Product;
+import Altech.checkout.service.pricing.CartPricer;
+import Altech.checkout.service.pricing.PricedCart;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cent-based {@link CartPricer} with the {@code BigDecimal} arithmetic it replaced, on the
+ * same cart and discounts. Run with {@code ./gradlew jmh -PjmhIncludes=MoneyArithmetic -PjmhProfilers=gc}
+ * to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Param({"10", "100"})
+    private int lines;
+
+    private final CartPricer cartPricer = new CartPricer();
+    private Cart cart;
+    private ActiveDiscounts activeDiscounts;
+    private List<Discount> discounts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        cart = new Cart();
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product();
+            product.setId((long) (i % 10));
+            CartItem item = new CartItem();
+            item.setProduct(product);
+            item.setUnitPrice(BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+            item.setQuantity(1 + random.nextInt(10));
+            cart.getItems().add(item);
+        }
+
+        discounts = List.of(
+                discount(1L, Discount.DiscountType.PERCENTAGE, new BigDecimal("15.00"), null),
+                discount(2L, Discount.DiscountType.FIXED_AMOUNT, new BigDecimal("25.00"), null),
+                discount(3L, Discount.DiscountType.BUY_X_GET_Y_FREE, BigDecimal.ZERO, 2),
+                discount(4L, Discount.DiscountType.SECOND_UNIT_PERCENTAGE, new BigDecimal("50.00"), null));
+        activeDiscounts = new ActiveDiscounts(1, List.of(
+                new PercentageDiscountRule(discounts.get(0)),
+                new FixedAmountDiscountRule(discounts.get(1)),
+                new BuyXGetYFreeDiscountRule(discounts.get(2)),
+                new SecondUnitPercentageDiscountRule(discounts.get(3))));
+    }
+
+    @Benchmark
+    public long cents() {
+        PricedCart pricedCart = cartPricer.price(cart, activeDiscounts);
+        return pricedCart.totalCents();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        Map<Long, List<CartItem>> itemsByProduct = new LinkedHashMap<>();
+        for (CartItem item : cart.getItems()) {
+            itemsByProduct.computeIfAbsent(item.getProduct().getId(), key -> new ArrayList<>()).add(item);
+        }
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (List<CartItem> items : itemsByProduct.values()) {
+            int totalQuantity = items.stream().mapToInt(CartItem::getQuantity).sum();
+            BigDecimal[] bestAmounts = new BigDecimal[items.size()];
+            BigDecimal bestSavings = BigDecimal.ZERO;
+            for (Discount discount : discounts) {
+                BigDecimal[] amounts = allocate(discount, items, totalQuantity);
+                BigDecimal savings = Arrays.stream(amounts).filter(Objects::nonNull).reduce(BigDecimal.ZERO, BigDecimal::add);
+                if (savings.compareTo(bestSavings) > 0) {
+                    bestAmounts = amounts;
+                    bestSavings = savings;
+                }
+            }
+            for (int i = 0; i < items.size(); i++) {
+                BigDecimal discountAmount = bestAmounts[i] == null ? BigDecimal.ZERO : bestAmounts[i];
+                totalAmount = totalAmount.add(originalTotal(items.get(i)).subtract(discountAmount));
+            }
+        }
+        return totalAmount;
+    }
+
+    private static BigDecimal[] allocate(Discount discount, List<CartItem> items, int totalQuantity) {
+        BigDecimal[] amounts = new BigDecimal[items.size()];
+        switch (discount.getType()) {
+            case PERCENTAGE -> {
+                BigDecimal rate = discount.getValue().divide(HUNDRED, 2, RoundingMode.HALF_UP);
+                for (int i = 0; i < amounts.length; i++) {
+                    amounts[i] = originalTotal(items.get(i)).multiply(rate);
+                }
+            }
+            case FIXED_AMOUNT -> {
+                BigDecimal total = items.stream().map(MoneyArithmeticBenchmark::originalTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+                BigDecimal applicableAmount = discount.getValue().min(total);
+                for (int i = 0; i < amounts.length; i++) {
+                    BigDecimal ratio = originalTotal(items.get(i)).divide(total, 4, RoundingMode.HALF_UP);
+                    amounts[i] = applicableAmount.multiply(ratio);
+                }
+            }
+            case BUY_X_GET_Y_FREE -> {
+                int remainingFreeItems = totalQuantity / (discount.getMinQuantity() + 1);
+                for (int i = 0; i < amounts.length && remainingFreeItems > 0; i++) {
+                    int freeForThisItem = Math.min(remainingFreeItems, items.get(i).getQuantity());
+                    amounts[i] = items.get(i).getUnitPrice().multiply(BigDecimal.valueOf(freeForThisItem));
+                    remainingFreeItems -= freeForThisItem;
+                }
+            }
+            case SECOND_UNIT_PERCENTAGE -> {
+                BigDecimal remainingRate = BigDecimal.ONE.subtract(discount.getValue().divide(HUNDRED, 2, RoundingMode.HALF_UP));
+                int remainingDiscountedItems = totalQuantity / 2;
+                for (int i = 0; i < amounts.length && remainingDiscountedItems > 0; i++) {
+                    int discountedForThisItem = Math.min(remainingDiscountedItems, items.get(i).getQuantity() / 2);
+                    amounts[i] = items.get(i).getUnitPrice()
+                            .multiply(remainingRate)
+                            .multiply(BigDecimal.valueOf(discountedForThisItem));
+                    remainingDiscountedItems -= discountedForThisItem;
+                }
+            }
+        }
+        return amounts;
+    }
+
+    private static BigDecimal originalTotal(CartItem item) {
+        return item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+    }
+
+    private static Discount discount(Long id, Discount.DiscountType type, BigDecimal value, Integer minQuantity) {
+        Discount discount = new Discount();
+        discount.setId(id);
+        discount.setName(type.name());
+        discount.setType(type);
+        discount.setValue(value);
+        discount.setMinQuantity(minQuantity);
+        return discount;
+    }
+}
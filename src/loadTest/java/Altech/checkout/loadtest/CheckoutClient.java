@@ -0,0 +1,89 @@
+package Altech.checkout.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+/**
+ * Minimal blocking client for the checkout REST API that times every call into {@link LatencyRecorder}.
+ */
+class CheckoutClient {
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI baseUri;
+
+    CheckoutClient(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    long createProduct(Map<String, Object> product) throws IOException, InterruptedException {
+        return send(null, "POST", "/admin/products", product).get("id").asLong();
+    }
+
+    void createDiscount(Map<String, Object> discount) throws IOException, InterruptedException {
+        send(null, "POST", "/admin/discounts", discount);
+    }
+
+    long createCart(LatencyRecorder recorder) throws IOException, InterruptedException {
+        return send(recorder, "POST", "/customer/cart", null).get("id").asLong();
+    }
+
+    void addItem(LatencyRecorder recorder, long cartId, long productId, int quantity) throws IOException, InterruptedException {
+        send(recorder, "POST", "/customer/cart/" + cartId + "/items?productId=" + productId + "&quantity=" + quantity, null);
+    }
+
+    void applyDiscounts(LatencyRecorder recorder, long cartId) throws IOException, InterruptedException {
+        send(recorder, "POST", "/customer/cart/" + cartId + "/apply-discounts", null);
+    }
+
+    void getReceipt(LatencyRecorder recorder, long cartId) throws IOException, InterruptedException {
+        send(recorder, "GET", "/customer/cart/" + cartId + "/receipt", null);
+    }
+
+    void deleteCart(LatencyRecorder recorder, long cartId) throws IOException, InterruptedException {
+        send(recorder, "DELETE", "/customer/cart/" + cartId, null);
+    }
+
+    private JsonNode send(LatencyRecorder recorder, String method, String path, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUri + path));
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        }
+
+        long startedAt = System.nanoTime();
+        HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        long elapsed = System.nanoTime() - startedAt;
+
+        boolean success = response.statusCode() / 100 == 2;
+        if (recorder != null) {
+            recorder.record(endpoint(method, path), elapsed, success);
+        }
+        if (!success) {
+            throw new RequestFailedException(method + " " + path + " returned " + response.statusCode());
+        }
+        return response.body().length == 0 ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+    }
+
+    // Ids are replaced so each endpoint is reported once
+    private static String endpoint(String method, String path) {
+        int query = path.indexOf('?');
+        String withoutQuery = query < 0 ? path : path.substring(0, query);
+        return method + " " + withoutQuery.replaceAll("/\\d+", "/{id}");
+    }
+
+    static class RequestFailedException extends RuntimeException {
+        RequestFailedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package Altech.checkout.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts per endpoint, shared by all virtual users of a stage.
+ */
+class LatencyRecorder {
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    void start() {
+        endpoints.clear();
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+    }
+
+    void record(String endpoint, long latencyNanos, boolean success) {
+        if (!recording) {
+            return;
+        }
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+        if (success) {
+            stats.latencies.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+        } else {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * Summary per endpoint plus a {@code total} entry, latencies in milliseconds.
+     */
+    Map<String, Map<String, Object>> summarize(double seconds) {
+        Map<String, Map<String, Object>> summary = new LinkedHashMap<>();
+        Histogram total = new Histogram(MAX_LATENCY_NANOS, 3);
+        long totalErrors = 0;
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Histogram latencies = entry.getValue().latencies.copy();
+            long errors = entry.getValue().errors.sum();
+            total.add(latencies);
+            totalErrors += errors;
+            summary.put(entry.getKey(), summarize(latencies, errors, seconds));
+        }
+        summary.put("total", summarize(total, totalErrors, seconds));
+        return summary;
+    }
+
+    private static Map<String, Object> summarize(Histogram latencies, long errors, double seconds) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", latencies.getTotalCount());
+        stats.put("errors", errors);
+        stats.put("requestsPerSecond", latencies.getTotalCount() / seconds);
+        stats.put("p50Millis", millis(latencies.getValueAtPercentile(50)));
+        stats.put("p99Millis", millis(latencies.getValueAtPercentile(99)));
+        stats.put("p999Millis", millis(latencies.getValueAtPercentile(99.9)));
+        stats.put("maxMillis", millis(latencies.getMaxValue()));
+        return stats;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static class Endpoint {
+        private final ConcurrentHistogram latencies = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
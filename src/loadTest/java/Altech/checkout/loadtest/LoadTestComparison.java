@@ -0,0 +1,60 @@
+package Altech.checkout.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+
+/**
+ * Prints two load test reports side by side, stage by stage, for example platform against virtual threads.
+ */
+public final class LoadTestComparison {
+
+    private LoadTestComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: LoadTestComparison <baseline report> <candidate report>");
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode baseline = objectMapper.readTree(new File(args[0]));
+        JsonNode candidate = objectMapper.readTree(new File(args[1]));
+
+        System.out.printf("%nbaseline:  %s%ncandidate: %s%n%n", args[0], args[1]);
+        System.out.printf("%8s %14s %14s %9s %14s %14s %12s %12s%n",
+                "users", "baseline req/s", "candidate req/s", "change", "baseline p99", "candidate p99", "base errors", "cand errors");
+        for (JsonNode baselineStage : baseline.get("stages")) {
+            int users = baselineStage.get("users").asInt();
+            JsonNode candidateStage = findStage(candidate, users);
+            if (candidateStage == null) {
+                continue;
+            }
+            JsonNode baselineTotal = baselineStage.get("endpoints").get("total");
+            JsonNode candidateTotal = candidateStage.get("endpoints").get("total");
+            double baselineThroughput = baselineTotal.get("requestsPerSecond").asDouble();
+            double candidateThroughput = candidateTotal.get("requestsPerSecond").asDouble();
+            System.out.printf("%8d %14.1f %14.1f %8.1f%% %12.2fms %12.2fms %12d %12d%n",
+                    users,
+                    baselineThroughput,
+                    candidateThroughput,
+                    baselineThroughput == 0 ? 0 : (candidateThroughput / baselineThroughput - 1) * 100,
+                    baselineTotal.get("p99Millis").asDouble(),
+                    candidateTotal.get("p99Millis").asDouble(),
+                    baselineTotal.get("errors").asLong(),
+                    candidateTotal.get("errors").asLong());
+        }
+        System.out.printf("%nSaturation: baseline %s users, candidate %s users%n",
+                baseline.get("saturationUsers").asText("none"),
+                candidate.get("saturationUsers").asText("none"));
+    }
+
+    private static JsonNode findStage(JsonNode report, int users) {
+        for (JsonNode stage : report.get("stages")) {
+            if (stage.get("users").asInt() == users) {
+                return stage;
+            }
+        }
+        return null;
+    }
+}
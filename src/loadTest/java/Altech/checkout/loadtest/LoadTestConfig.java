@@ -0,0 +1,57 @@
+package Altech.checkout.loadtest;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Load test settings, read from {@code loadTest.*} system properties ({@code -PloadTest.*} through Gradle).
+ *
+ * @param users         concurrent virtual users of each stage, stages run in this order
+ * @param warmupSeconds time each stage runs before latencies are recorded
+ * @param stageSeconds  time latencies are recorded per stage
+ * @param products      products seeded into the catalog
+ * @param discounts     active discounts seeded, cycling through every discount type
+ * @param itemsPerCart  items added to each cart before discounts are applied
+ * @param hotProducts   products that {@code hotFraction} of all adds go to, to create contention
+ * @param hotFraction   share of adds that go to the hot products
+ * @param stock         initial stock of every product
+ * @param profiles      Spring profiles the application runs with, for example {@code virtual-threads}
+ * @param reportDir     directory the JSON report is written to
+ * @param reportName    report file name without extension, a timestamp when not set
+ */
+record LoadTestConfig(List<Integer> users,
+                      int warmupSeconds,
+                      int stageSeconds,
+                      int products,
+                      int discounts,
+                      int itemsPerCart,
+                      int hotProducts,
+                      double hotFraction,
+                      int stock,
+                      List<String> profiles,
+                      Path reportDir,
+                      String reportName) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Arrays.stream(System.getProperty("loadTest.users", "1,4,16,64").split(","))
+                        .map(String::trim)
+                        .map(Integer::valueOf)
+                        .toList(),
+                Integer.getInteger("loadTest.warmupSeconds", 10),
+                Integer.getInteger("loadTest.stageSeconds", 30),
+                Integer.getInteger("loadTest.products", 1000),
+                Integer.getInteger("loadTest.discounts", 50),
+                Integer.getInteger("loadTest.itemsPerCart", 5),
+                Integer.getInteger("loadTest.hotProducts", 5),
+                Double.parseDouble(System.getProperty("loadTest.hotFraction", "0.2")),
+                Integer.getInteger("loadTest.stock", 100_000_000),
+                Arrays.stream(System.getProperty("loadTest.profiles", "").split(","))
+                        .map(String::trim)
+                        .filter(profile -> !profile.isEmpty())
+                        .toList(),
+                Path.of(System.getProperty("loadTest.reportDir", "build/reports/load-test")),
+                System.getProperty("loadTest.reportName"));
+    }
+}
@@ -0,0 +1,215 @@
+package Altech.checkout.loadtest;
+
+import Altech.checkout.CheckoutApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Boots the application against an embedded PostgreSQL, seeds a catalog and discounts, then drives the
+ * create cart, add items, apply discounts, receipt and delete flow with an increasing number of
+ * concurrent virtual users.
+ * <p>
+ * Each stage reports p50/p99/p999 latency and requests per second per endpoint. The saturation point
+ * is the first stage where adding users no longer raises total throughput by at least 5%.
+ */
+public final class LoadTestRunner {
+    private static final double SATURATION_GAIN = 1.05;
+
+    private final LoadTestConfig config;
+    private final CheckoutClient client;
+    private final List<Long> productIds = new ArrayList<>();
+
+    private LoadTestRunner(LoadTestConfig config, CheckoutClient client) {
+        this.config = config;
+        this.client = client;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(CheckoutApplication.class)
+                     .profiles(config.profiles().toArray(String[]::new))
+                     .properties(
+                             "spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                             "spring.datasource.username=postgres",
+                             "spring.datasource.password=postgres",
+                             "spring.docker.compose.enabled=false",
+                             "spring.jpa.show-sql=false",
+                             "server.port=0",
+                             "logging.level.root=WARN",
+                             "logging.level.org.hibernate.SQL=WARN",
+                             "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                             "logging.level.Altech.checkout=WARN")
+                     .run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            CheckoutClient client = new CheckoutClient(URI.create("http://localhost:" + port + "/api"));
+            new LoadTestRunner(config, client).run();
+        }
+    }
+
+    private void run() throws Exception {
+        System.out.println("Profiles: " + (config.profiles().isEmpty() ? "default" : String.join(",", config.profiles())));
+        seed();
+
+        List<Map<String, Object>> stages = new ArrayList<>();
+        for (int users : config.users()) {
+            Map<String, Map<String, Object>> endpoints = runStage(users);
+            Map<String, Object> stage = new LinkedHashMap<>();
+            stage.put("users", users);
+            stage.put("endpoints", endpoints);
+            stages.add(stage);
+            print(users, endpoints);
+        }
+
+        Integer saturationUsers = findSaturation(stages);
+        System.out.println(saturationUsers == null
+                ? "No saturation reached, throughput still grew at " + config.users().get(config.users().size() - 1) + " users"
+                : "Saturated at " + saturationUsers + " users");
+        writeReport(stages, saturationUsers);
+    }
+
+    private void seed() throws Exception {
+        System.out.printf("Seeding %d products and %d discounts%n", config.products(), config.discounts());
+        Random random = new Random(42);
+        for (int i = 0; i < config.products(); i++) {
+            Map<String, Object> product = new HashMap<>();
+            product.put("name", "Product " + i);
+            product.put("description", "Load test product " + i);
+            product.put("price", (100 + random.nextInt(100_000)) / 100.0);
+            product.put("stock", config.stock());
+            product.put("category", "category-" + (i % 20));
+            productIds.add(client.createProduct(product));
+        }
+
+        String[] types = {"PERCENTAGE", "FIXED_AMOUNT", "BUY_X_GET_Y_FREE", "SECOND_UNIT_PERCENTAGE"};
+        for (int i = 0; i < config.discounts(); i++) {
+            String type = types[i % types.length];
+            Map<String, Object> discount = new HashMap<>();
+            discount.put("name", "Discount " + i);
+            discount.put("description", "Load test discount " + i);
+            discount.put("type", type);
+            discount.put("value", switch (type) {
+                case "FIXED_AMOUNT" -> 1 + random.nextInt(50);
+                case "BUY_X_GET_Y_FREE" -> 0;
+                default -> 5 + random.nextInt(46);
+            });
+            discount.put("minQuantity", type.equals("BUY_X_GET_Y_FREE") ? 1 + random.nextInt(3) : random.nextInt(3));
+            discount.put("isActive", true);
+            // A third unscoped, a third per product, a third per category
+            switch (i % 3) {
+                case 1 -> discount.put("productIds", List.of(productIds.get(random.nextInt(productIds.size()))));
+                case 2 -> discount.put("categories", List.of("category-" + random.nextInt(20)));
+                default -> {
+                }
+            }
+            client.createDiscount(discount);
+        }
+    }
+
+    private Map<String, Map<String, Object>> runStage(int users) throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        // Client threads are virtual so the client never limits concurrency before the server does
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            long seed = i;
+            futures.add(executor.submit(() -> {
+                virtualUser(recorder, running, new Random(seed));
+                return null;
+            }));
+        }
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(config.warmupSeconds()));
+        recorder.start();
+        long startedAt = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(config.stageSeconds()));
+        recorder.stop();
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+        running.set(false);
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        return recorder.summarize(seconds);
+    }
+
+    private void virtualUser(LatencyRecorder recorder, AtomicBoolean running, Random random) throws Exception {
+        while (running.get()) {
+            try {
+                long cartId = client.createCart(recorder);
+                for (int i = 0; i < config.itemsPerCart(); i++) {
+                    client.addItem(recorder, cartId, pickProduct(random), 1 + random.nextInt(3));
+                }
+                client.applyDiscounts(recorder, cartId);
+                client.getReceipt(recorder, cartId);
+                client.deleteCart(recorder, cartId);
+            } catch (CheckoutClient.RequestFailedException e) {
+                // Already counted as an error of its endpoint, start over with a new cart
+            }
+        }
+    }
+
+    private long pickProduct(Random random) {
+        int hotProducts = Math.min(config.hotProducts(), productIds.size());
+        if (hotProducts > 0 && random.nextDouble() < config.hotFraction()) {
+            return productIds.get(random.nextInt(hotProducts));
+        }
+        return productIds.get(random.nextInt(productIds.size()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Integer findSaturation(List<Map<String, Object>> stages) {
+        double previous = 0;
+        for (Map<String, Object> stage : stages) {
+            Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) stage.get("endpoints");
+            double throughput = (double) endpoints.get("total").get("requestsPerSecond");
+            if (previous > 0 && throughput < previous * SATURATION_GAIN) {
+                return (Integer) stage.get("users");
+            }
+            previous = throughput;
+        }
+        return null;
+    }
+
+    private static void print(int users, Map<String, Map<String, Object>> endpoints) {
+        System.out.printf("%n%d users%n", users);
+        System.out.printf("%-45s %10s %8s %10s %10s %10s %10s%n", "endpoint", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        endpoints.forEach((endpoint, stats) -> System.out.printf("%-45s %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+                endpoint,
+                stats.get("requestsPerSecond"),
+                stats.get("errors"),
+                stats.get("p50Millis"),
+                stats.get("p99Millis"),
+                stats.get("p999Millis"),
+                stats.get("maxMillis")));
+    }
+
+    private void writeReport(List<Map<String, Object>> stages, Integer saturationUsers) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("stages", stages);
+        report.put("saturationUsers", saturationUsers);
+
+        Files.createDirectories(config.reportDir());
+        String name = config.reportName() != null
+                ? config.reportName()
+                : LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path file = config.reportDir().resolve("load-test-" + name + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        System.out.println("Report written to " + file);
+    }
+}
@@ -0,0 +1,113 @@
+package Altech.checkout.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Small thread-safe LRU map that drops the least recently used entry once {@code maxSize} is exceeded,
+ * and optionally entries older than a time to live.
+ */
+public class BoundedCache<K, V> {
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // Zero when entries never expire
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public BoundedCache(int maxSize) {
+        this(maxSize, Duration.ZERO);
+    }
+
+    public BoundedCache(int maxSize, Duration ttl) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("Cache ttl must not be negative");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.createdAt() >= ttlNanos) {
+            entries.remove(key);
+            expirations.increment();
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    /**
+     * Atomically replaces the value for {@code key} with the result of {@code remapping}, which receives
+     * {@code null} when there is no live entry and may return {@code null} to remove it. Does not count
+     * as a hit or a miss.
+     */
+    public synchronized V compute(K key, UnaryOperator<V> remapping) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.createdAt() >= ttlNanos) {
+            entries.remove(key);
+            expirations.increment();
+            entry = null;
+        }
+        V current = entry == null ? null : entry.value();
+        V next = remapping.apply(current);
+        if (next == null) {
+            entries.remove(key);
+        } else if (next != current) {
+            entries.put(key, new Entry<>(next, System.nanoTime()));
+        }
+        return next;
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    private record Entry<V>(V value, long createdAt) {
+    }
+}
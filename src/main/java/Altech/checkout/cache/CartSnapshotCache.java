@@ -0,0 +1,77 @@
+package Altech.checkout.cache;
+
+import Altech.checkout.dto.CartSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Serialized carts keyed by cart id, each tagged with the cart version it was rendered from.
+ * <p>
+ * Entries only move forward: a snapshot is stored only if it is newer than the one already held, so a
+ * slow reader cannot overwrite the state written by a later commit. Invalidation leaves a marker with the
+ * last known version behind for the same reason.
+ */
+@Component
+public class CartSnapshotCache {
+    private final BoundedCache<Long, Entry> entries;
+
+    public CartSnapshotCache(@Value("${checkout.cart-cache.max-size:10000}") int maxSize,
+                             @Value("${checkout.cart-cache.ttl:PT10M}") Duration ttl) {
+        this.entries = new BoundedCache<>(maxSize, ttl);
+    }
+
+    public CartSnapshot get(Long cartId) {
+        Entry entry = entries.get(cartId);
+        return entry == null ? null : entry.snapshot();
+    }
+
+    /**
+     * Version of the cached snapshot, or {@code null} if the cart is not cached.
+     */
+    public Long version(Long cartId) {
+        CartSnapshot snapshot = get(cartId);
+        return snapshot == null ? null : snapshot.version();
+    }
+
+    public void put(CartSnapshot snapshot) {
+        entries.compute(snapshot.cartId(), current -> {
+            if (current == null
+                    || snapshot.version() > current.version()
+                    || current.snapshot() == null && snapshot.version() == current.version()) {
+                return new Entry(snapshot.version(), snapshot);
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Drops the snapshot of a cart that is now at {@code committedVersion}, a later read renders it again.
+     */
+    public void invalidate(Long cartId, long committedVersion) {
+        entries.compute(cartId, current ->
+                current != null && current.version() > committedVersion ? current : new Entry(committedVersion, null));
+    }
+
+    /**
+     * Drops the snapshot of a cart changed outside the service, whose version is known to have moved on.
+     */
+    public void invalidate(Long cartId) {
+        entries.compute(cartId, current -> current == null ? null : new Entry(current.version() + 1, null));
+    }
+
+    public void evict(Long cartId) {
+        // Deleted carts never come back, so no earlier snapshot may be stored again
+        entries.compute(cartId, current -> new Entry(Long.MAX_VALUE, null));
+    }
+
+    public Map<String, Object> getStats() {
+        return entries.getStats();
+    }
+
+    // A null snapshot marks the lowest version that may be stored next
+    private record Entry(long version, CartSnapshot snapshot) {
+    }
+}
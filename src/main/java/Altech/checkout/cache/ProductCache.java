@@ -0,0 +1,74 @@
+package Altech.checkout.cache;
+
+import Altech.checkout.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Product details keyed by id. Stock is deliberately not cached since it changes on every
+ * reservation, callers read it from the inventory instead.
+ */
+@Component
+public class ProductCache {
+    private final BoundedCache<Long, CachedProduct> entries;
+    private final LongAdder invalidations = new LongAdder();
+
+    public ProductCache(@Value("${checkout.product-cache.max-size:10000}") int maxSize,
+                        @Value("${checkout.product-cache.ttl:PT5M}") Duration ttl) {
+        this.entries = new BoundedCache<>(maxSize, ttl);
+    }
+
+    /**
+     * Returns a fresh copy of the cached product with its stock left unset, or {@code null} on a miss.
+     */
+    public Product get(Long productId) {
+        CachedProduct cached = entries.get(productId);
+        return cached == null ? null : cached.toProduct();
+    }
+
+    /**
+     * Caches the details of {@code product} and returns a copy of them like {@link #get} does.
+     */
+    public Product put(Product product) {
+        CachedProduct cached = new CachedProduct(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getCategory(),
+                product.getIsActive());
+        entries.put(product.getId(), cached);
+        return cached.toProduct();
+    }
+
+    public void evict(Long productId) {
+        entries.remove(productId);
+        invalidations.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = entries.getStats();
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private record CachedProduct(Long id, String name, String description, BigDecimal price, String category,
+                                 Boolean isActive) {
+
+        private Product toProduct() {
+            Product product = new Product();
+            product.setId(id);
+            product.setName(name);
+            product.setDescription(description);
+            product.setPrice(price);
+            product.setCategory(category);
+            product.setIsActive(isActive);
+            return product;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package Altech.checkout.cache;
+
+import Altech.checkout.dto.Receipt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Receipts keyed by cart id, valid for as long as neither the cart version nor the
+ * active discount generation they were priced with has changed.
+ */
+@Component
+public class ReceiptCache {
+    private final BoundedCache<Long, Entry> entries;
+
+    public ReceiptCache(@Value("${checkout.receipt-cache.max-size:10000}") int maxSize) {
+        this.entries = new BoundedCache<>(maxSize);
+    }
+
+    public Receipt get(Long cartId, Long cartVersion, long discountGeneration) {
+        Entry entry = entries.get(cartId);
+        if (entry == null || !entry.cartVersion().equals(cartVersion) || entry.discountGeneration() != discountGeneration) {
+            return null;
+        }
+        return entry.receipt();
+    }
+
+    public void put(Long cartId, Long cartVersion, long discountGeneration, Receipt receipt) {
+        entries.put(cartId, new Entry(cartVersion, discountGeneration, receipt));
+    }
+
+    public void evict(Long cartId) {
+        entries.remove(cartId);
+    }
+
+    public Map<String, Object> getStats() {
+        return entries.getStats();
+    }
+
+    private record Entry(Long cartVersion, long discountGeneration, Receipt receipt) {
+    }
+}
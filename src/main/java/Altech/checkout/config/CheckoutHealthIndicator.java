@@ -0,0 +1,27 @@
+package Altech.checkout.config;
+
+import Altech.checkout.service.HealthCheckService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exposes the background health snapshot to Actuator as the {@code checkout} component, which is
+ * part of the readiness group at /actuator/health/readiness.
+ */
+@Component
+@RequiredArgsConstructor
+public class CheckoutHealthIndicator implements HealthIndicator {
+    private final HealthCheckService healthCheckService;
+
+    @Override
+    public Health health() {
+        Map<String, Object> readiness = new HashMap<>(healthCheckService.getReadiness());
+        Health.Builder builder = "UP".equals(readiness.remove("status")) ? Health.up() : Health.down();
+        return builder.withDetails(readiness).build();
+    }
+}
@@ -0,0 +1,35 @@
+package Altech.checkout.config;
+
+import Altech.checkout.metrics.SlowQueryLog;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes every statement through {@link SlowQueryLog} by wrapping the data source in a
+ * datasource-proxy. The proxy unwraps to the pool, so Hikari metrics and health keep working.
+ */
+@Configuration
+public class SqlRecorderConfig {
+
+    @Bean
+    static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(slowQueryLog.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
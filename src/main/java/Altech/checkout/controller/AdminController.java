@@ -1,17 +1,32 @@
 package Altech.checkout.controller;
 
+import Altech.checkout.cache.ProductCache;
+import Altech.checkout.dto.CartSearchCriteria;
+import Altech.checkout.dto.CartSummaryPage;
+import Altech.checkout.dto.ProductPage;
+import Altech.checkout.metrics.SlowQueryLog;
 import Altech.checkout.model.Discount;
 import Altech.checkout.model.Product;
+import Altech.checkout.service.CartService;
 import Altech.checkout.service.DiscountService;
 import Altech.checkout.service.ProductService;
+import Altech.checkout.service.cart.CartCommandExecutor;
+import Altech.checkout.service.inventory.ReservationReaper;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/admin")
@@ -20,6 +35,12 @@ import java.util.List;
 public class AdminController {
     private final ProductService productService;
     private final DiscountService discountService;
+    private final CartService cartService;
+    private final CartCommandExecutor cartCommandExecutor;
+    private final ReservationReaper reservationReaper;
+    private final ProductCache productCache;
+    private final SlowQueryLog slowQueryLog;
+    private final ObjectMapper objectMapper;
 
     // Product Management
     @Operation(
@@ -32,12 +53,43 @@ public class AdminController {
     }
 
     @Operation(
-        summary = "Get All Products",
-        description = "Admin gets a list of all products"
+        summary = "Get Products",
+        description = "Admin pages through products, pass nextCursor as after to get the next page"
     )
     @GetMapping("/products")
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<ProductPage> getProducts(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean includeInactive) {
+        return ResponseEntity.ok(productService.getProducts(after, size, includeInactive));
+    }
+
+    @Operation(
+        summary = "Export Products",
+        description = "Admin streams every product, including inactive ones, as newline-delimited JSON"
+    )
+    @GetMapping(value = "/products/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = outputStream -> productService.forEachProduct(product -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(product));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @Operation(
+        summary = "Get Product Cache Metrics",
+        description = "Admin gets the product cache size, hits, misses, evictions and invalidations"
+    )
+    @GetMapping("/products/cache/metrics")
+    public ResponseEntity<Map<String, Object>> getProductCacheMetrics() {
+        return ResponseEntity.ok(productCache.getStats());
     }
 
     @Operation(
@@ -114,4 +166,77 @@ public class AdminController {
         discountService.deleteDiscount(id);
         return ResponseEntity.noContent().build();
     }
-} 
\ No newline at end of file
+
+    // Carts
+    @Operation(
+        summary = "Search Carts",
+        description = "Admin pages through cart summaries filtered by update time, total or contained product, pass nextCursor as after to get the next page"
+    )
+    @GetMapping("/carts")
+    public ResponseEntity<CartSummaryPage> searchCarts(
+            CartSearchCriteria criteria,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(cartService.searchCarts(criteria, after, size));
+    }
+
+    @Operation(
+        summary = "Export Carts",
+        description = "Admin streams the summaries of every cart matching the search filters as newline-delimited JSON"
+    )
+    @GetMapping(value = "/carts/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportCarts(CartSearchCriteria criteria) {
+        StreamingResponseBody body = outputStream -> cartService.forEachCart(criteria, cart -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(cart));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @Operation(
+        summary = "Get Cart Command Metrics",
+        description = "Admin gets how many cart changes are queued behind another change of the same cart and how long they waited"
+    )
+    @GetMapping("/carts/commands/metrics")
+    public ResponseEntity<Map<String, Object>> getCartCommandMetrics() {
+        return ResponseEntity.ok(cartCommandExecutor.getStats());
+    }
+
+    // Reservations
+    @Operation(
+        summary = "Get Reservation Reaper Metrics",
+        description = "Admin gets the units reclaimed from expired cart reservations, reaper lag and batch durations"
+    )
+    @GetMapping("/reservations/metrics")
+    public ResponseEntity<Map<String, Object>> getReservationMetrics() {
+        return ResponseEntity.ok(reservationReaper.getMetrics());
+    }
+
+    // Diagnostics
+    @Operation(
+        summary = "Get Slow Queries",
+        description = "Admin gets the most recent sampled statements above the slow query threshold, newest first, with statement counts per cart operation"
+    )
+    @GetMapping("/diagnostics/slow-queries")
+    public ResponseEntity<Map<String, Object>> getSlowQueries(@RequestParam(defaultValue = "50") int limit) {
+        Map<String, Object> response = slowQueryLog.getStats();
+        response.put("entries", slowQueryLog.recent(limit));
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+        summary = "Clear Slow Queries",
+        description = "Admin empties the slow query buffer, statement counts are kept"
+    )
+    @DeleteMapping("/diagnostics/slow-queries")
+    public ResponseEntity<Void> clearSlowQueries() {
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
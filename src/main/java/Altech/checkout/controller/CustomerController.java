@@ -1,5 +1,9 @@
 package Altech.checkout.controller;
 
+import Altech.checkout.dto.CartItemOperation;
+import Altech.checkout.dto.CartSnapshot;
+import Altech.checkout.dto.ProductPage;
+import Altech.checkout.dto.Receipt;
 import Altech.checkout.model.Cart;
 import Altech.checkout.model.Product;
 import Altech.checkout.service.CartService;
@@ -8,11 +12,12 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/customer")
@@ -24,12 +29,14 @@ public class CustomerController {
 
     // Product Browsing
     @Operation(
-        summary = "Get All Products",
-        description = "Customers can get a list of all available products"
+        summary = "Get Products",
+        description = "Customers can page through the available products, pass nextCursor as after to get the next page"
     )
     @GetMapping("/products")
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<ProductPage> getProducts(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(productService.getProducts(after, size, false));
     }
 
     @Operation(
@@ -51,22 +58,20 @@ public class CustomerController {
         return new ResponseEntity<>(cartService.createCart(), HttpStatus.CREATED);
     }
 
-    @Operation(
-        summary = "Get All Carts",
-        description = "Get all shopping carts (for administration and testing)"
-    )
-    @GetMapping("/carts")
-    public ResponseEntity<List<Cart>> getAllCarts() {
-        return ResponseEntity.ok(cartService.getAllCarts());
-    }
-
     @Operation(
         summary = "Get Cart",
-        description = "Customers can get cart details by ID"
+        description = "Customers can get cart details by ID, send the ETag back as If-None-Match to get 304 while the cart is unchanged"
     )
     @GetMapping("/cart/{id}")
-    public ResponseEntity<Cart> getCartById(@PathVariable Long id) {
-        return ResponseEntity.ok(cartService.getCartById(id));
+    public ResponseEntity<byte[]> getCartById(@PathVariable Long id, WebRequest request) {
+        CartSnapshot snapshot = cartService.getCartSnapshot(id);
+        if (request.checkNotModified(snapshot.eTag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.eTag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.body());
     }
 
     @Operation(
@@ -91,6 +96,17 @@ public class CustomerController {
         return ResponseEntity.ok(cartService.addItemToCart(cartId, productId, quantity));
     }
 
+    @Operation(
+        summary = "Apply Cart Item Operations",
+        description = "Customers can add, update and remove several cart items in one request, all changes succeed or fail together"
+    )
+    @PostMapping("/cart/{cartId}/items/batch")
+    public ResponseEntity<Cart> applyItemOperations(
+            @PathVariable Long cartId,
+            @RequestBody List<CartItemOperation> operations) {
+        return ResponseEntity.ok(cartService.applyItemOperations(cartId, operations));
+    }
+
     @Operation(
         summary = "Remove Item from Cart",
         description = "Customers can remove items from their cart"
@@ -125,10 +141,16 @@ public class CustomerController {
 
     @Operation(
         summary = "Generate Cart Receipt",
-        description = "Customers can generate a receipt including all items, applied discounts, and total price"
+        description = "Customers can generate a receipt including all items, applied discounts, and total price, send the ETag back as If-None-Match to get 304 while it is unchanged"
     )
     @GetMapping("/cart/{cartId}/receipt")
-    public ResponseEntity<Map<String, Object>> generateReceipt(@PathVariable Long cartId) {
-        return ResponseEntity.ok(cartService.generateReceipt(cartId));
+    public ResponseEntity<Receipt> generateReceipt(@PathVariable Long cartId, WebRequest request) {
+        String eTag = cartService.getReceiptETag(cartId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(cartService.generateReceipt(cartId));
     }
 } 
\ No newline at end of file
@@ -4,6 +4,7 @@ import Altech.checkout.service.HealthCheckService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -40,11 +41,31 @@ public class TestController {
     
     @Operation(
         summary = "Detailed Health Check API",
-        description = "Performs detailed system health check including database table checks and system resource status"
+        description = "Returns the latest background health snapshot including estimated table sizes, connection pool usage and system resource status"
     )
     @GetMapping("/health/detail")
     public ResponseEntity<Map<String, Object>> detailedHealthCheck() {
         Map<String, Object> detailedHealthStatus = healthCheckService.performDetailedHealthCheck();
         return ResponseEntity.ok(detailedHealthStatus);
     }
-} 
\ No newline at end of file
+
+    @Operation(
+        summary = "Liveness Probe",
+        description = "Returns 200 while the application is running, database outages do not affect it"
+    )
+    @GetMapping("/health/live")
+    public ResponseEntity<Map<String, Object>> liveness() {
+        return ResponseEntity.ok(healthCheckService.getLiveness());
+    }
+
+    @Operation(
+        summary = "Readiness Probe",
+        description = "Returns 503 while the database is unreachable or the background health snapshot is stale"
+    )
+    @GetMapping("/health/ready")
+    public ResponseEntity<Map<String, Object>> readiness() {
+        Map<String, Object> readiness = healthCheckService.getReadiness();
+        HttpStatus status = "UP".equals(readiness.get("status")) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(readiness);
+    }
+}
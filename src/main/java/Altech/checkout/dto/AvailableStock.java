@@ -0,0 +1,11 @@
+package Altech.checkout.dto;
+
+/**
+ * Available stock of one product together with the database snapshot it was read in.
+ */
+public interface AvailableStock {
+    Long getAvailable();
+
+    // pg_snapshot text form, xmin:xmax:xip_list
+    String getSnapshot();
+}
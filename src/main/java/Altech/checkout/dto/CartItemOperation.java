@@ -0,0 +1,21 @@
+package Altech.checkout.dto;
+
+import lombok.Data;
+
+/**
+ * One change in a batch cart update. {@code ADD} uses {@code productId}, {@code UPDATE} and
+ * {@code REMOVE} use {@code itemId}, {@code ADD} and {@code UPDATE} use {@code quantity}.
+ */
+@Data
+public class CartItemOperation {
+    private Type type;
+    private Long productId;
+    private Long itemId;
+    private Integer quantity;
+
+    public enum Type {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+}
@@ -0,0 +1,33 @@
+package Altech.checkout.dto;
+
+import Altech.checkout.model.CartItem;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * State of one cart line as last written, a cart has at most one line per product.
+ */
+public record CartLine(Long productId, int quantity, BigDecimal unitPrice, Long discountId, BigDecimal discountAmount) {
+
+    public static CartLine of(CartItem item) {
+        return new CartLine(
+                item.getProduct().getId(),
+                item.getQuantity(),
+                item.getUnitPrice(),
+                item.getAppliedDiscount() == null ? null : item.getAppliedDiscount().getId(),
+                item.getDiscountAmount());
+    }
+
+    public boolean sameQuantity(CartLine other) {
+        return quantity == other.quantity && sameAmount(unitPrice, other.unitPrice);
+    }
+
+    public boolean sameDiscount(CartLine other) {
+        return Objects.equals(discountId, other.discountId) && sameAmount(discountAmount, other.discountAmount);
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+}
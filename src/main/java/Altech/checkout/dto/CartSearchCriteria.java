@@ -0,0 +1,26 @@
+package Altech.checkout.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Optional cart search filters, every filter left {@code null} matches all carts.
+ */
+@Data
+public class CartSearchCriteria {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime updatedTo;
+
+    private BigDecimal minTotal;
+
+    private BigDecimal maxTotal;
+
+    // Only carts holding this product
+    private Long productId;
+}
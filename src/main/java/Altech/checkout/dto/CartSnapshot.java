@@ -0,0 +1,11 @@
+package Altech.checkout.dto;
+
+/**
+ * A cart serialized to JSON at a given version.
+ */
+public record CartSnapshot(Long cartId, Long version, byte[] body) {
+
+    public String eTag() {
+        return "\"" + cartId + "-" + version + "\"";
+    }
+}
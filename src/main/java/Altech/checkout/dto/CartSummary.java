@@ -0,0 +1,21 @@
+package Altech.checkout.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Cart header without its items, used by the admin cart search.
+ */
+public interface CartSummary {
+    Long getId();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    BigDecimal getTotalAmount();
+
+    LocalDateTime getReservationExpiresAt();
+
+    Long getItemCount();
+}
@@ -0,0 +1,10 @@
+package Altech.checkout.dto;
+
+import java.util.List;
+
+/**
+ * One page of cart search results ordered by id. Pass {@code nextCursor} as {@code after} to get the
+ * next page, it is {@code null} on the last page.
+ */
+public record CartSummaryPage(List<CartSummary> items, Long nextCursor) {
+}
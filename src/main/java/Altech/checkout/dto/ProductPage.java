@@ -0,0 +1,12 @@
+package Altech.checkout.dto;
+
+import Altech.checkout.model.Product;
+
+import java.util.List;
+
+/**
+ * One page of products ordered by id. Pass {@code nextCursor} as {@code after} to get the next page,
+ * it is {@code null} on the last page.
+ */
+public record ProductPage(List<Product> items, Long nextCursor) {
+}
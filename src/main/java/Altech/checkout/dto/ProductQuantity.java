@@ -0,0 +1,10 @@
+package Altech.checkout.dto;
+
+/**
+ * Total quantity of one product, used by aggregate queries over cart items.
+ */
+public interface ProductQuantity {
+    Long getProductId();
+
+    Long getQuantity();
+}
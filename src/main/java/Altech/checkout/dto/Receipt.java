@@ -0,0 +1,33 @@
+package Altech.checkout.dto;
+
+import Altech.checkout.model.Discount;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record Receipt(
+        Long cartId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        List<Item> items,
+        BigDecimal totalAmount) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(
+            Long productId,
+            String productName,
+            Integer quantity,
+            BigDecimal unitPrice,
+            BigDecimal totalPrice,
+            AppliedDiscount appliedDiscount) {
+    }
+
+    public record AppliedDiscount(
+            Long discountId,
+            String discountName,
+            Discount.DiscountType discountType,
+            BigDecimal discountAmount) {
+    }
+}
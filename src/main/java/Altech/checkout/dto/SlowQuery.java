@@ -0,0 +1,13 @@
+package Altech.checkout.dto;
+
+import java.time.Instant;
+
+/**
+ * A statement that took longer than the slow query threshold. Bind values are never recorded.
+ *
+ * @param operation the {@code CartService} method that issued it, {@code null} outside cart operations
+ * @param batchSize number of parameter sets for batched statements, 1 otherwise
+ */
+public record SlowQuery(Instant executedAt, String operation, long elapsedMillis, int batchSize, boolean success,
+                        String sql) {
+}
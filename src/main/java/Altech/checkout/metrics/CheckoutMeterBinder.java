@@ -0,0 +1,107 @@
+package Altech.checkout.metrics;
+
+import Altech.checkout.cache.CartSnapshotCache;
+import Altech.checkout.cache.ProductCache;
+import Altech.checkout.cache.ReceiptCache;
+import Altech.checkout.config.ConcurrencyLimitFilter;
+import Altech.checkout.service.cart.CartCommandExecutor;
+import Altech.checkout.service.cart.CartSessionStore;
+import Altech.checkout.service.inventory.ReservationReaper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Publishes the counters the checkout components already keep for their admin metrics endpoints.
+ * <p>
+ * Meters hold the components themselves as their state objects, they are singletons so the weak
+ * references Micrometer keeps never go stale.
+ */
+@Component
+@RequiredArgsConstructor
+public class CheckoutMeterBinder implements MeterBinder {
+    private final ReservationReaper reservationReaper;
+    private final ProductCache productCache;
+    private final CartSnapshotCache cartSnapshotCache;
+    private final ReceiptCache receiptCache;
+    private final CartCommandExecutor cartCommandExecutor;
+    private final ObjectProvider<ConcurrencyLimitFilter> concurrencyLimitFilter;
+    private final ObjectProvider<CartSessionStore> cartSessionStore;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("checkout.reservation.reaped.carts", reservationReaper, ReservationReaper::getReapedCarts)
+                .description("Carts whose expired reservations were given back")
+                .register(registry);
+        FunctionCounter.builder("checkout.reservation.reclaimed.units", reservationReaper, ReservationReaper::getReclaimedUnits)
+                .description("Units of stock given back by the reservation reaper")
+                .register(registry);
+        Gauge.builder("checkout.reservation.reaper.lag", reservationReaper, ReservationReaper::getLastLagMillis)
+                .description("Age of the oldest expired reservation at the last reaper run")
+                .baseUnit("milliseconds")
+                .register(registry);
+
+        bindCache(registry, "product", productCache, ProductCache::getStats);
+        bindCache(registry, "cart", cartSnapshotCache, CartSnapshotCache::getStats);
+        bindCache(registry, "receipt", receiptCache, ReceiptCache::getStats);
+
+        Gauge.builder("checkout.cart.commands.queued", cartCommandExecutor, CartCommandExecutor::getQueued)
+                .description("Cart changes waiting for another change of the same cart")
+                .register(registry);
+        FunctionTimer.builder("checkout.cart.commands.wait", cartCommandExecutor,
+                        CartCommandExecutor::getWaits, CartCommandExecutor::getWaitNanos, TimeUnit.NANOSECONDS)
+                .description("Time cart changes waited for the previous change of their cart")
+                .register(registry);
+
+        concurrencyLimitFilter.ifAvailable(filter -> {
+            Gauge.builder("checkout.concurrency.available", filter, ConcurrencyLimitFilter::getAvailablePermits)
+                    .description("Request permits currently free")
+                    .register(registry);
+            FunctionCounter.builder("checkout.concurrency.rejected", filter, ConcurrencyLimitFilter::getRejectedRequests)
+                    .description("Requests turned away with 503 because no permit became free in time")
+                    .register(registry);
+        });
+
+        cartSessionStore.ifAvailable(store -> {
+            Gauge.builder("checkout.cart.sessions", store, s -> stat(s.getStats(), "sessions"))
+                    .description("Carts with quantity changes held in memory")
+                    .register(registry);
+            FunctionCounter.builder("checkout.cart.sessions.coalesced", store, s -> stat(s.getStats(), "coalescedChanges"))
+                    .description("Quantity changes applied in memory")
+                    .register(registry);
+            FunctionCounter.builder("checkout.cart.sessions.flushes", store, s -> stat(s.getStats(), "flushes"))
+                    .description("Coalesced changes written to the database")
+                    .register(registry);
+            FunctionCounter.builder("checkout.cart.sessions.refused", store, s -> stat(s.getStats(), "refusedSessions"))
+                    .description("Quantity changes written directly because every session was taken")
+                    .register(registry);
+        });
+    }
+
+    private static <T> void bindCache(MeterRegistry registry, String name, T cache, Function<T, Map<String, Object>> stats) {
+        Tags tags = Tags.of("cache", name);
+        Gauge.builder("checkout.cache.size", cache, c -> stat(stats.apply(c), "size"))
+                .tags(tags)
+                .register(registry);
+        for (String counter : new String[] {"hits", "misses", "evictions", "expirations"}) {
+            FunctionCounter.builder("checkout.cache." + counter, cache, c -> stat(stats.apply(c), counter))
+                    .tags(tags)
+                    .register(registry);
+        }
+    }
+
+    private static double stat(Map<String, Object> stats, String key) {
+        Object value = stats.get(key);
+        return value instanceof Number number ? number.doubleValue() : Double.NaN;
+    }
+}
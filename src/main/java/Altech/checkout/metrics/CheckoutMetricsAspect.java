@@ -0,0 +1,92 @@
+package Altech.checkout.metrics;
+
+import Altech.checkout.service.pricing.PricedCart;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every {@code CartService} operation and the discount selection, counts the JDBC statements
+ * each operation issues and counts reservations that were refused for lack of stock.
+ * <p>
+ * Percentile histograms for the {@code checkout.*} meters are switched on in application.yml.
+ */
+@Aspect
+@Component
+public class CheckoutMetricsAspect {
+    private final MeterRegistry meterRegistry;
+    private final Timer discountSelection;
+    private final DistributionSummary discountsEvaluated;
+    private final DistributionSummary itemsPerCart;
+    private final Counter stockConflicts;
+
+    public CheckoutMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.discountSelection = Timer.builder("checkout.discount.selection")
+                .description("Time spent choosing the best discount for every product group of a cart")
+                .register(meterRegistry);
+        this.discountsEvaluated = DistributionSummary.builder("checkout.discount.evaluated")
+                .description("Candidate discount rules tried per priced cart")
+                .baseUnit("rules")
+                .register(meterRegistry);
+        this.itemsPerCart = DistributionSummary.builder("checkout.cart.items")
+                .description("Cart lines per priced cart")
+                .baseUnit("items")
+                .register(meterRegistry);
+        this.stockConflicts = Counter.builder("checkout.stock.conflicts")
+                .description("Reservations refused because not enough stock was left")
+                .register(meterRegistry);
+    }
+
+    @Around("execution(* Altech.checkout.service.CartService.*(..))")
+    public Object timeCartOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        SqlAttribution.Frame frame = SqlAttribution.enter(operation);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("checkout.cart.operation")
+                    .description("Latency of CartService operations")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            SqlAttribution.exit(frame);
+            DistributionSummary.builder("checkout.cart.statements")
+                    .description("JDBC statements executed per CartService operation")
+                    .baseUnit("statements")
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .record(frame.statements());
+        }
+    }
+
+    @Around("execution(* Altech.checkout.service.pricing.CartPricer.price(..))")
+    public Object timeDiscountSelection(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        PricedCart pricedCart = (PricedCart) joinPoint.proceed();
+        sample.stop(discountSelection);
+        discountsEvaluated.record(pricedCart.rulesEvaluated());
+        itemsPerCart.record(pricedCart.lines().size());
+        return pricedCart;
+    }
+
+    @AfterReturning(
+            pointcut = "execution(boolean Altech.checkout.service.InventoryService.reserve(..))",
+            returning = "reserved")
+    public void countStockConflict(boolean reserved) {
+        if (!reserved) {
+            stockConflicts.increment();
+        }
+    }
+}
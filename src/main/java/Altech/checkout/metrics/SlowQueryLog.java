@@ -0,0 +1,118 @@
+package Altech.checkout.metrics;
+
+import Altech.checkout.dto.SlowQuery;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts every JDBC statement per {@code CartService} operation and keeps a sample of the slow
+ * ones in a fixed size ring buffer, replacing per-statement SQL logging.
+ * <p>
+ * Only statements at or above {@code threshold} reach the buffer, and of those only a
+ * {@code sample-rate} fraction is kept. The buffer lock is taken for slow statements only.
+ */
+@Component
+public class SlowQueryLog implements QueryExecutionListener {
+    private static final String UNATTRIBUTED = "none";
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    private final long thresholdMillis;
+    private final double sampleRate;
+    private final Map<String, LongAdder> statementsByOperation = new ConcurrentHashMap<>();
+    private final LongAdder slowStatements = new LongAdder();
+    // Ring buffer, guarded by this
+    private final SlowQuery[] entries;
+    private long recorded;
+
+    public SlowQueryLog(@Value("${checkout.slow-query.threshold:PT0.1S}") Duration threshold,
+                        @Value("${checkout.slow-query.sample-rate:1.0}") double sampleRate,
+                        @Value("${checkout.slow-query.capacity:200}") int capacity) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Slow query sample rate must be between 0 and 1");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Slow query capacity must be positive");
+        }
+        this.thresholdMillis = threshold.toMillis();
+        this.sampleRate = sampleRate;
+        this.entries = new SlowQuery[capacity];
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String operation = SqlAttribution.statementExecuted();
+        statementsByOperation.computeIfAbsent(operation == null ? UNATTRIBUTED : operation, key -> new LongAdder())
+                .increment();
+
+        long elapsedMillis = execInfo.getElapsedTime();
+        if (elapsedMillis < thresholdMillis) {
+            return;
+        }
+        slowStatements.increment();
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        record(new SlowQuery(Instant.now(), operation, elapsedMillis,
+                execInfo.isBatch() ? execInfo.getBatchSize() : 1, execInfo.isSuccess(), sql(queryInfoList)));
+    }
+
+    /**
+     * Most recent sampled slow statements, newest first.
+     */
+    public synchronized List<SlowQuery> recent(int limit) {
+        int count = (int) Math.min(Math.min(recorded, entries.length), Math.max(limit, 0));
+        List<SlowQuery> result = new ArrayList<>(count);
+        for (long i = recorded - 1; result.size() < count; i--) {
+            result.add(entries[(int) (i % entries.length)]);
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(entries, null);
+        recorded = 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Long> statements = new TreeMap<>();
+        statementsByOperation.forEach((operation, count) -> statements.put(operation, count.sum()));
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("thresholdMillis", thresholdMillis);
+        stats.put("sampleRate", sampleRate);
+        stats.put("capacity", entries.length);
+        stats.put("slowStatements", slowStatements.sum());
+        synchronized (this) {
+            stats.put("sampledStatements", recorded);
+        }
+        stats.put("statementsByOperation", statements);
+        return stats;
+    }
+
+    private synchronized void record(SlowQuery slowQuery) {
+        entries[(int) (recorded++ % entries.length)] = slowQuery;
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        StringJoiner joiner = new StringJoiner("; ");
+        for (QueryInfo queryInfo : queryInfoList) {
+            joiner.add(queryInfo.getQuery());
+        }
+        String sql = joiner.toString();
+        return sql.length() <= MAX_SQL_LENGTH ? sql : sql.substring(0, MAX_SQL_LENGTH) + "...";
+    }
+}
@@ -0,0 +1,55 @@
+package Altech.checkout.metrics;
+
+/**
+ * Remembers which {@code CartService} operation the current thread is running, so statements seen
+ * at the JDBC level can be attributed to it and counted per call.
+ */
+public final class SqlAttribution {
+    private static final ThreadLocal<Frame> CURRENT = new ThreadLocal<>();
+
+    private SqlAttribution() {
+    }
+
+    static Frame enter(String operation) {
+        Frame frame = new Frame(operation, CURRENT.get());
+        CURRENT.set(frame);
+        return frame;
+    }
+
+    static void exit(Frame frame) {
+        if (frame.previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(frame.previous);
+        }
+    }
+
+    /**
+     * Counts a statement against the innermost running operation.
+     *
+     * @return the operation name, or {@code null} when no operation is running on this thread
+     */
+    static String statementExecuted() {
+        Frame frame = CURRENT.get();
+        if (frame == null) {
+            return null;
+        }
+        frame.statements++;
+        return frame.operation;
+    }
+
+    static final class Frame {
+        private final String operation;
+        private final Frame previous;
+        private int statements;
+
+        private Frame(String operation, Frame previous) {
+            this.operation = operation;
+            this.previous = previous;
+        }
+
+        int statements() {
+            return statements;
+        }
+    }
+}
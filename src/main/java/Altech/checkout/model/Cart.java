@@ -1,18 +1,27 @@
 package Altech.checkout.model;
 
+import Altech.checkout.money.Cents;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Entity
 @Table(name = "carts")
 public class Cart {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carts_seq")
+    @SequenceGenerator(name = "carts_seq", sequenceName = "carts_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "created_at", nullable = false)
@@ -24,9 +33,100 @@ public class Cart {
     @Column(name = "total_amount")
     private BigDecimal totalAmount;
 
+    // Items are released by the reservation reaper once this passes
+    @Column(name = "reservation_expires_at")
+    private LocalDateTime reservationExpiresAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CartItem> items = new ArrayList<>();
 
+    // Lines keyed by item id and by product id, built on the first lookup and kept in step by
+    // addItem and removeItem
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Map<Long, CartItem> itemsById;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Map<Long, CartItem> itemsByProductId;
+
+    /**
+     * The line with the given id, null when the cart has none.
+     */
+    public CartItem findItem(Long itemId) {
+        indexItems();
+        CartItem item = itemsById.get(itemId);
+        if (item == null && itemsById.size() < items.size()) {
+            // Lines added since the index was built may have been given their id by now
+            itemsById = null;
+            indexItems();
+            item = itemsById.get(itemId);
+        }
+        return item;
+    }
+
+    /**
+     * The line of the given product, null when the cart has none. A cart holds at most one line
+     * per product.
+     */
+    public CartItem findItemByProduct(Long productId) {
+        indexItems();
+        return itemsByProductId.get(productId);
+    }
+
+    public void addItem(CartItem item) {
+        indexItems();
+        items.add(item);
+        if (item.getId() != null) {
+            itemsById.put(item.getId(), item);
+        }
+        itemsByProductId.put(item.getProduct().getId(), item);
+    }
+
+    public void removeItem(CartItem item) {
+        indexItems();
+        items.remove(item);
+        if (item.getId() != null) {
+            itemsById.remove(item.getId());
+        }
+        itemsByProductId.remove(item.getProduct().getId(), item);
+    }
+
+    public void calculateTotalAmount() {
+        long total = 0;
+        for (CartItem item : items) {
+            total += Cents.of(item.getTotalPrice());
+        }
+        totalAmount = Cents.toBigDecimal(total);
+    }
+
+    private void indexItems() {
+        if (itemsById != null) {
+            return;
+        }
+        Map<Long, CartItem> byId = new HashMap<>();
+        Map<Long, CartItem> byProductId = new HashMap<>();
+        for (CartItem item : items) {
+            if (item.getId() != null) {
+                byId.put(item.getId(), item);
+            }
+            // Products are proxies at worst, reading their id never loads them
+            byProductId.put(item.getProduct().getId(), item);
+        }
+        itemsById = byId;
+        itemsByProductId = byProductId;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
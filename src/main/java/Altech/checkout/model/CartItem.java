@@ -1,5 +1,7 @@
 package Altech.checkout.model;
 
+import Altech.checkout.money.Cents;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.math.BigDecimal;
@@ -9,9 +11,11 @@ import java.math.BigDecimal;
 @Table(name = "cart_items")
 public class CartItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_id_seq", allocationSize = 50)
     private Long id;
 
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cart_id", nullable = false)
     private Cart cart;
@@ -44,10 +48,11 @@ public class CartItem {
     
     public void calculateTotalPrice() {
         if (quantity != null && unitPrice != null) {
-            totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            long total = Cents.times(Cents.of(unitPrice), quantity);
             if (discountAmount != null) {
-                totalPrice = totalPrice.subtract(discountAmount);
+                total -= Cents.of(discountAmount);
             }
+            totalPrice = Cents.toBigDecimal(total);
         }
     }
 } 
\ No newline at end of file
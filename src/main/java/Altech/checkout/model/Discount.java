@@ -4,13 +4,16 @@ import jakarta.persistence.*;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 @Data
 @Entity
 @Table(name = "discounts")
 public class Discount {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "discounts_seq")
+    @SequenceGenerator(name = "discounts_seq", sequenceName = "discounts_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -38,6 +41,17 @@ public class Discount {
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
+    // Products and categories the discount is limited to, both empty means every product
+    @ElementCollection
+    @CollectionTable(name = "discount_products", joinColumns = @JoinColumn(name = "discount_id"))
+    @Column(name = "product_id")
+    private Set<Long> productIds = new HashSet<>();
+
+    @ElementCollection
+    @CollectionTable(name = "discount_categories", joinColumns = @JoinColumn(name = "discount_id"))
+    @Column(name = "category")
+    private Set<String> categories = new HashSet<>();
+
     public enum DiscountType {
         PERCENTAGE,
         FIXED_AMOUNT,
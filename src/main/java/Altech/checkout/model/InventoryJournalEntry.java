@@ -0,0 +1,30 @@
+package Altech.checkout.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "inventory_journal")
+public class InventoryJournalEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_journal_seq")
+    @SequenceGenerator(name = "inventory_journal_seq", sequenceName = "inventory_journal_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // Negative for reservations, positive for releases
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
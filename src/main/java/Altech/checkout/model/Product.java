@@ -2,14 +2,19 @@ package Altech.checkout.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 
+// Updates write only the changed columns, stock moves through the inventory and must not be
+// overwritten by an edit of the other details
 @Data
 @Entity
+@DynamicUpdate
 @Table(name = "products")
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -24,6 +29,9 @@ public class Product {
     @Column(nullable = false)
     private Integer stock;
 
+    @Column
+    private String category;
+
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 } 
\ No newline at end of file
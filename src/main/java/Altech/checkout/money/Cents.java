@@ -0,0 +1,59 @@
+package Altech.checkout.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on {@code long} amounts in cents, matching the {@code DECIMAL(10,2)} columns.
+ * <p>
+ * Amounts enter as {@link BigDecimal} from entities and requests and leave as {@link BigDecimal} for
+ * persistence and JSON, everything in between stays in cents. Divisions round half away from zero, the
+ * same as {@link RoundingMode#HALF_UP}, so a result equals the {@code BigDecimal} computation rounded
+ * to cents.
+ */
+public final class Cents {
+    private static final int SCALE = 2;
+
+    private Cents() {
+    }
+
+    /**
+     * Converts an amount to cents, rounding half up if it has more than two decimals.
+     */
+    public static long of(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long times(long cents, int quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    /**
+     * Computes {@code a * b / divisor} rounded half up, without overflowing on the intermediate product.
+     */
+    public static long mulDiv(long a, long b, long divisor) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if (high == 0 && low >= 0 || high == -1 && low < 0) {
+            return divideHalfUp(low, divisor);
+        }
+        // The product needs more than 64 bits, rare enough to take the slow path
+        return new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)))
+                .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= Math.abs(divisor) - remainder) {
+            quotient += (dividend ^ divisor) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
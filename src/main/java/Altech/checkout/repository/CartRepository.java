@@ -1,9 +1,114 @@
 package Altech.checkout.repository;
 
+import Altech.checkout.dto.CartSummary;
+import Altech.checkout.dto.ProductQuantity;
 import Altech.checkout.model.Cart;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
-} 
\ No newline at end of file
+
+    // Cart headers matching the optional search filters, null filters match everything
+    String SEARCH_SUMMARIES = """
+            SELECT c.id AS id, c.createdAt AS createdAt, c.updatedAt AS updatedAt, c.totalAmount AS totalAmount,
+                   c.reservationExpiresAt AS reservationExpiresAt,
+                   (SELECT COUNT(i) FROM CartItem i WHERE i.cart = c) AS itemCount
+            FROM Cart c
+            WHERE c.id > :afterId
+              AND (:updatedFrom IS NULL OR c.updatedAt >= :updatedFrom)
+              AND (:updatedTo IS NULL OR c.updatedAt < :updatedTo)
+              AND (:minTotal IS NULL OR c.totalAmount >= :minTotal)
+              AND (:maxTotal IS NULL OR c.totalAmount <= :maxTotal)
+              AND (:productId IS NULL OR EXISTS (
+                  SELECT 1 FROM CartItem i WHERE i.cart = c AND i.product.id = :productId))
+            ORDER BY c.id
+            """;
+
+    // Keyset pagination, each page continues after the last id of the previous one
+    @Query(SEARCH_SUMMARIES)
+    List<CartSummary> searchSummaries(Long afterId, LocalDateTime updatedFrom, LocalDateTime updatedTo,
+                                      BigDecimal minTotal, BigDecimal maxTotal, Long productId, Limit limit);
+
+    // Server-side cursor, must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SEARCH_SUMMARIES)
+    Stream<CartSummary> streamSummaries(Long afterId, LocalDateTime updatedFrom, LocalDateTime updatedTo,
+                                        BigDecimal minTotal, BigDecimal maxTotal, Long productId);
+
+    // Loads the cart with its items, their products and applied discounts in a single round trip
+    @EntityGraph(attributePaths = {"items", "items.product", "items.appliedDiscount"})
+    Optional<Cart> findWithItemsById(Long id);
+
+    // Same graph without dirty checking, for changes that are written back as events
+    @EntityGraph(attributePaths = {"items", "items.product", "items.appliedDiscount"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<Cart> findReadOnlyWithItemsById(Long id);
+
+    // Optimistic check and version bump for a change written without the entity
+    @Modifying
+    @Query("""
+            UPDATE Cart c
+            SET c.totalAmount = :totalAmount, c.updatedAt = :updatedAt,
+                c.reservationExpiresAt = :reservationExpiresAt, c.version = c.version + 1
+            WHERE c.id = :id AND c.version = :version
+            """)
+    int updateHeader(Long id, Long version, BigDecimal totalAmount, LocalDateTime updatedAt,
+                     LocalDateTime reservationExpiresAt);
+
+    @Modifying
+    @Query("DELETE FROM CartItem i WHERE i.id IN :itemIds")
+    int deleteItemsById(Collection<Long> itemIds);
+
+    @Query("SELECT c.version FROM Cart c WHERE c.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    // Locks the returned carts, carts being edited right now are skipped and picked up by a later run
+    @Query(value = """
+            SELECT id FROM carts
+            WHERE reservation_expires_at <= :now
+            ORDER BY reservation_expires_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockExpiredReservations(LocalDateTime now, int limit);
+
+    @Query("SELECT MIN(c.reservationExpiresAt) FROM Cart c WHERE c.id IN :cartIds")
+    LocalDateTime findEarliestReservationExpiry(Collection<Long> cartIds);
+
+    @Query("""
+            SELECT i.product.id AS productId, SUM(i.quantity) AS quantity
+            FROM CartItem i WHERE i.cart.id IN :cartIds
+            GROUP BY i.product.id
+            """)
+    List<ProductQuantity> sumQuantitiesByProduct(Collection<Long> cartIds);
+
+    @Modifying
+    @Query("DELETE FROM CartItem i WHERE i.cart.id IN :cartIds")
+    int deleteItems(Collection<Long> cartIds);
+
+    @Modifying
+    @Query("""
+            UPDATE Cart c
+            SET c.totalAmount = 0, c.reservationExpiresAt = NULL, c.updatedAt = :now, c.version = c.version + 1
+            WHERE c.id IN :cartIds
+            """)
+    int clearReservations(Collection<Long> cartIds, LocalDateTime now);
+}
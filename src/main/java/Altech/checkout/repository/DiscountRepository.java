@@ -1,9 +1,17 @@
 package Altech.checkout.repository;
 
 import Altech.checkout.model.Discount;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface DiscountRepository extends JpaRepository<Discount, Long> {
-} 
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"productIds", "categories"})
+    @Query("SELECT d FROM Discount d WHERE d.isActive = true")
+    List<Discount> findAllActiveWithScopes();
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package Altech.checkout.repository;
+
+import Altech.checkout.model.InventoryJournalEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InventoryJournalRepository extends JpaRepository<InventoryJournalEntry, Long> {
+
+    // Moves every committed journal row into products.stock in one statement, so no delta is lost or applied twice
+    @Modifying
+    @Query(value = """
+            WITH moved AS (
+                DELETE FROM inventory_journal RETURNING product_id, delta
+            )
+            UPDATE products p SET stock = p.stock + m.delta
+            FROM (SELECT product_id, SUM(delta) AS delta FROM moved GROUP BY product_id) m
+            WHERE p.id = m.product_id
+            """, nativeQuery = true)
+    int flushPendingDeltas();
+
+    // Id of the current transaction, compared against the snapshots ledger counters were loaded in
+    @Query(value = "SELECT CAST(CAST(pg_current_xact_id() AS text) AS bigint)", nativeQuery = true)
+    long currentTransactionId();
+
+    @Modifying
+    @Query("DELETE FROM InventoryJournalEntry e WHERE e.productId = :productId")
+    int deleteByProductId(Long productId);
+}
@@ -1,9 +1,51 @@
 package Altech.checkout.repository;
 
+import Altech.checkout.dto.AvailableStock;
 import Altech.checkout.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-} 
\ No newline at end of file
+
+    // Keyset pagination, each page continues after the last id of the previous one
+    List<Product> findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Server-side cursor, must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderById();
+
+    // Returns 0 when the product does not have enough stock, the check and the decrement are atomic
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :id AND p.stock >= :quantity")
+    int reserveStock(Long id, int quantity);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :id")
+    int releaseStock(Long id, int quantity);
+
+    // Stock plus the inventory journal deltas that have not been folded into it yet, with the snapshot
+    // the statement read them in so later journal commits can be told apart from the ones counted here
+    @Query(value = """
+            SELECT p.stock + COALESCE((SELECT SUM(j.delta) FROM inventory_journal j WHERE j.product_id = p.id), 0) AS available,
+                   CAST(pg_current_snapshot() AS text) AS snapshot
+            FROM products p WHERE p.id = :id
+            """, nativeQuery = true)
+    Optional<AvailableStock> findAvailableStock(Long id);
+}
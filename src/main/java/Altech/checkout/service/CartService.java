@@ -1,17 +1,27 @@
 package Altech.checkout.service;
 
+import Altech.checkout.dto.CartItemOperation;
+import Altech.checkout.dto.CartSearchCriteria;
+import Altech.checkout.dto.CartSnapshot;
+import Altech.checkout.dto.CartSummary;
+import Altech.checkout.dto.CartSummaryPage;
+import Altech.checkout.dto.Receipt;
 import Altech.checkout.model.Cart;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 public interface CartService {
     Cart createCart();
     Cart getCartById(Long id);
-    List<Cart> getAllCarts();
+    CartSnapshot getCartSnapshot(Long id);
+    CartSummaryPage searchCarts(CartSearchCriteria criteria, Long after, int size);
+    void forEachCart(CartSearchCriteria criteria, Consumer<CartSummary> action);
     void deleteCart(Long id);
     Cart addItemToCart(Long cartId, Long productId, Integer quantity);
     Cart removeItemFromCart(Long cartId, Long cartItemId);
     Cart updateCartItemQuantity(Long cartId, Long cartItemId, Integer quantity);
+    Cart applyItemOperations(Long cartId, List<CartItemOperation> operations);
     Cart applyDiscounts(Long cartId);
-    Map<String, Object> generateReceipt(Long cartId);
+    Receipt generateReceipt(Long cartId);
+    String getReceiptETag(Long cartId);
 } 
\ No newline at end of file
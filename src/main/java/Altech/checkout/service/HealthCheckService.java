@@ -4,6 +4,8 @@ import java.util.Map;
 
 /**
  * 健康检查服务接口
+ * <p>
+ * 所有结果都来自后台定时刷新的快照, 探针请求不会访问数据库
  */
 public interface HealthCheckService {
     
@@ -14,21 +16,31 @@ public interface HealthCheckService {
     Map<String, Object> performBasicHealthCheck();
     
     /**
-     * 执行详细健康检查
+     * 执行详细健康检查, 表行数为 pg_class 中的估计值
      * @return 健康检查结果
      */
     Map<String, Object> performDetailedHealthCheck();
     
     /**
      * 检查数据库连接
-     * @return 是否连接成功
+     * @return 最近一次刷新时是否连接成功
      */
     boolean isDatabaseConnected();
-    
+
+    /**
+     * 存活检查, 只反映进程本身, 数据库故障不会导致重启
+     * @return 检查结果
+     */
+    Map<String, Object> getLiveness();
+
+    /**
+     * 就绪检查, 数据库不可用或快照过期时为 DOWN
+     * @return 检查结果
+     */
+    Map<String, Object> getReadiness();
+
     /**
-     * 检查特定表是否存在并可访问
-     * @param tableName 表名
-     * @return 结果信息
+     * 刷新健康快照
      */
-    Map<String, Object> checkTableAccess(String tableName);
-} 
\ No newline at end of file
+    void refresh();
+}
@@ -0,0 +1,24 @@
+package Altech.checkout.service;
+
+public interface InventoryService {
+    /**
+     * Takes {@code quantity} units of a product out of stock.
+     * @return {@code false} when the product does not have enough stock left
+     */
+    boolean reserve(Long productId, int quantity);
+
+    /**
+     * Puts {@code quantity} previously reserved units of a product back into stock.
+     */
+    void release(Long productId, int quantity);
+
+    /**
+     * Units of a product that can still be reserved.
+     */
+    long available(Long productId);
+
+    /**
+     * Called after an administrator overwrote {@code products.stock}, which becomes the new available stock.
+     */
+    void resetStock(Long productId);
+}
@@ -1,12 +1,17 @@
 package Altech.checkout.service;
 
+import Altech.checkout.dto.ProductPage;
 import Altech.checkout.model.Product;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ProductService {
     Product createProduct(Product product);
     Product getProductById(Long id);
-    List<Product> getAllProducts();
+    List<Product> getProductsByIds(Collection<Long> ids);
+    ProductPage getProducts(Long after, int size, boolean includeInactive);
+    void forEachProduct(Consumer<Product> action);
     Product updateProduct(Long id, Product product);
     void deleteProduct(Long id);
 } 
\ No newline at end of file
@@ -0,0 +1,109 @@
+package Altech.checkout.service.cart;
+
+import Altech.checkout.dto.CartLine;
+import Altech.checkout.model.Cart;
+import Altech.checkout.model.CartItem;
+import Altech.checkout.repository.CartRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * Writes cart changes as the difference from the loaded lines instead of saving the cart entity.
+ * <p>
+ * A change costs one optimistic update of the {@code carts} row and one statement per touched line
+ * in {@code cart_items}, with updates sent as a single batch. Untouched lines are neither dirty
+ * checked nor written.
+ */
+@Component
+public class CartChangeWriter {
+    private static final String UPDATE_ITEM = """
+            UPDATE cart_items
+            SET quantity = ?, unit_price = ?, total_price = ?, discount_id = ?, discount_amount = ?
+            WHERE id = ?
+            """;
+
+    private final CartRepository cartRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CartChangeWriter(CartRepository cartRepository, EntityManager entityManager, JdbcTemplate jdbcTemplate) {
+        this.cartRepository = cartRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Loads a cart with its items outside the persistence context, changes made to it are only
+     * written by {@link #write}.
+     */
+    public Cart load(Long cartId) {
+        Cart cart = cartRepository.findReadOnlyWithItemsById(cartId)
+                .orElseThrow(() -> new EntityNotFoundException("Cart not found with id: " + cartId));
+        entityManager.detach(cart);
+        return cart;
+    }
+
+    /**
+     * Lines of a loaded cart keyed by item id, to be passed back to {@link #write}.
+     */
+    public Map<Long, CartLine> capture(Cart cart) {
+        Map<Long, CartLine> lines = new HashMap<>();
+        for (CartItem item : cart.getItems()) {
+            lines.put(item.getId(), CartLine.of(item));
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the difference between {@code before} and the current lines of the cart together with
+     * its header, and sets the new version on the cart.
+     *
+     * @throws OptimisticLockingFailureException when the cart changed since it was loaded
+     */
+    public void write(Cart cart, Map<Long, CartLine> before) {
+        int updated = cartRepository.updateHeader(cart.getId(), cart.getVersion(), cart.getTotalAmount(),
+                cart.getUpdatedAt(), cart.getReservationExpiresAt());
+        if (updated == 0) {
+            throw new OptimisticLockingFailureException("Cart " + cart.getId() + " was changed concurrently");
+        }
+        cart.setVersion(cart.getVersion() + 1);
+
+        Set<Long> removedIds = new HashSet<>(before.keySet());
+        List<CartItem> changedItems = new ArrayList<>();
+        List<CartItem> addedItems = new ArrayList<>();
+        for (CartItem item : cart.getItems()) {
+            if (item.getId() == null) {
+                addedItems.add(item);
+                continue;
+            }
+            removedIds.remove(item.getId());
+            CartLine previous = before.get(item.getId());
+            CartLine line = CartLine.of(item);
+            if (!previous.sameQuantity(line) || !previous.sameDiscount(line)) {
+                changedItems.add(item);
+            }
+        }
+
+        // Removals come first so a product removed and added again in one change ends up in the cart
+        if (!removedIds.isEmpty()) {
+            cartRepository.deleteItemsById(removedIds);
+        }
+        if (!changedItems.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_ITEM, changedItems, changedItems.size(), (statement, item) -> {
+                statement.setInt(1, item.getQuantity());
+                statement.setBigDecimal(2, item.getUnitPrice());
+                statement.setBigDecimal(3, item.getTotalPrice());
+                statement.setObject(4, item.getAppliedDiscount() == null ? null : item.getAppliedDiscount().getId(), Types.BIGINT);
+                statement.setBigDecimal(5, item.getDiscountAmount());
+                statement.setLong(6, item.getId());
+            });
+        }
+        addedItems.forEach(entityManager::persist);
+    }
+}
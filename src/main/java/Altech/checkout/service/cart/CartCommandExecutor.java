@@ -0,0 +1,125 @@
+package Altech.checkout.service.cart;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the changes of one cart one at a time, in arrival order.
+ * <p>
+ * Every cart with a change running or waiting has its own fair lock, held for the whole change
+ * including its transaction and dropped once no change of the cart is left. Two tabs editing the
+ * same cart queue here instead of both reading the same items and one of them failing the version
+ * check on write, while changes of other carts never wait on each other and nothing waits on a
+ * database lock. A change that waits longer than {@code wait-timeout} fails with
+ * {@link CannotAcquireLockException}.
+ */
+@Component
+public class CartCommandExecutor {
+    private final Map<Long, CartLock> locks = new ConcurrentHashMap<>();
+    private final long waitTimeoutNanos;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public CartCommandExecutor(@Value("${checkout.cart-commands.wait-timeout:PT5S}") Duration waitTimeout) {
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    /**
+     * Runs {@code command} once no other change of the cart is running. A nested call for the same
+     * cart runs right away.
+     */
+    public <T> T execute(Long cartId, Supplier<T> command) {
+        CartLock held = locks.get(cartId);
+        if (held != null && held.lock.isHeldByCurrentThread()) {
+            return command.get();
+        }
+
+        CartLock cartLock = locks.compute(cartId, (id, existing) -> {
+            CartLock entry = existing != null ? existing : new CartLock();
+            entry.users++;
+            return entry;
+        });
+        try {
+            acquire(cartId, cartLock);
+            try {
+                return command.get();
+            } finally {
+                cartLock.lock.unlock();
+            }
+        } finally {
+            // Dropped with the last change of the cart so the map only holds carts being edited
+            locks.computeIfPresent(cartId, (id, entry) -> --entry.users == 0 ? null : entry);
+        }
+    }
+
+    /**
+     * Changes waiting for another change of the same cart right now.
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getWaits() {
+        return waits.sum();
+    }
+
+    public double getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    public Map<String, Object> getStats() {
+        int maxQueueDepth = 0;
+        for (CartLock cartLock : locks.values()) {
+            maxQueueDepth = Math.max(maxQueueDepth, cartLock.lock.getQueueLength());
+        }
+        long waitCount = waits.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("activeCarts", locks.size());
+        stats.put("queued", queued.get());
+        stats.put("maxQueueDepth", maxQueueDepth);
+        stats.put("waits", waitCount);
+        stats.put("averageWaitMillis", waitCount == 0 ? 0.0 : waitNanos.sum() / 1_000_000.0 / waitCount);
+        stats.put("timeouts", timeouts.sum());
+        return stats;
+    }
+
+    private void acquire(Long cartId, CartLock cartLock) {
+        long start = System.nanoTime();
+        boolean acquired;
+        queued.incrementAndGet();
+        try {
+            acquired = cartLock.lock.tryLock(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            queued.decrementAndGet();
+        }
+        waits.increment();
+        waitNanos.add(System.nanoTime() - start);
+        if (!acquired) {
+            timeouts.increment();
+            throw new CannotAcquireLockException("Cart " + cartId + " is busy with another change");
+        }
+    }
+
+    private static final class CartLock {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        // Changes of the cart running or waiting, only read and written inside the map's compute calls
+        private int users;
+    }
+}
@@ -0,0 +1,491 @@
+package Altech.checkout.service.cart;
+
+import Altech.checkout.cache.CartSnapshotCache;
+import Altech.checkout.dto.CartLine;
+import Altech.checkout.model.Cart;
+import Altech.checkout.model.CartItem;
+import Altech.checkout.model.Discount;
+import Altech.checkout.service.InventoryService;
+import Altech.checkout.service.inventory.InventoryLedger;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process tier for carts whose item quantities are being tweaked.
+ * <p>
+ * Quantity changes are applied to a detached copy of the cart and coalesced, then written as one
+ * change through {@link CartChangeWriter} when the cart has been idle for {@code idle-timeout}, after
+ * {@code dirty-threshold} changes, or before any other operation on the cart. Each session is
+ * changed by one thread at a time.
+ * <p>
+ * Once {@code max-sessions} carts have a session, further carts are refused a session and their
+ * changes are written directly by the caller. The sweeper then flushes the least recently used
+ * sessions until a tenth of the room is free again, callers never flush another cart.
+ * <p>
+ * Added units are taken from the {@link InventoryLedger} right away and journaled on flush, removed
+ * units are released on flush. Every change is appended to a local write-ahead file before it is
+ * applied, and changes not yet flushed are replayed from that file at startup. A cart whose version
+ * moved on since its changes were recorded is skipped, its last flush committed before the crash.
+ */
+@Component
+@ConditionalOnProperty(name = "checkout.cart-session.enabled", havingValue = "true")
+public class CartSessionStore {
+    private final CartChangeWriter cartChangeWriter;
+    private final InventoryService inventoryService;
+    private final InventoryLedger inventoryLedger;
+    private final CartSnapshotCache cartSnapshotCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxSessions;
+    private final long idleTimeoutNanos;
+    private final int dirtyThreshold;
+    private final Duration reservationTtl;
+    private final CartSessionWal wal;
+
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    // Changes append under the read lock, recovery takes the write lock
+    private final ReentrantReadWriteLock walLock = new ReentrantReadWriteLock();
+
+    private final LongAdder coalescedChanges = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder refusedSessions = new LongAdder();
+    private final LongAdder recoveredCarts = new LongAdder();
+    private final LongAdder skippedCarts = new LongAdder();
+    private final LongAdder checkpointedSegments = new LongAdder();
+
+    public CartSessionStore(CartChangeWriter cartChangeWriter,
+                            InventoryService inventoryService,
+                            ObjectProvider<InventoryLedger> inventoryLedger,
+                            CartSnapshotCache cartSnapshotCache,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${checkout.cart-session.max-sessions:10000}") int maxSessions,
+                            @Value("${checkout.cart-session.idle-timeout:PT30S}") Duration idleTimeout,
+                            @Value("${checkout.cart-session.dirty-threshold:20}") int dirtyThreshold,
+                            @Value("${checkout.cart-session.wal-path}") Path walPath,
+                            @Value("${checkout.cart-session.wal-sync:true}") boolean walSync,
+                            @Value("${checkout.cart-session.wal-segment-size:4MB}") DataSize walSegmentSize,
+                            @Value("${checkout.reservation.ttl:PT30M}") Duration reservationTtl) throws IOException {
+        if (maxSessions < 1 || dirtyThreshold < 1) {
+            throw new IllegalArgumentException("Cart session limits must be positive");
+        }
+        this.cartChangeWriter = cartChangeWriter;
+        this.inventoryService = inventoryService;
+        // Holds are taken from the ledger's counters, the conditional UPDATE path has nothing to hold
+        this.inventoryLedger = inventoryLedger.getIfAvailable();
+        if (this.inventoryLedger == null) {
+            throw new IllegalStateException(
+                    "checkout.cart-session.enabled requires checkout.inventory.ledger.enabled=true");
+        }
+        this.cartSnapshotCache = cartSnapshotCache;
+        // Callers close sessions before opening their own transaction, so a flush commits on its own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxSessions = maxSessions;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.dirtyThreshold = dirtyThreshold;
+        this.reservationTtl = reservationTtl;
+        this.wal = new CartSessionWal(walPath, walSync, walSegmentSize.toBytes());
+    }
+
+    /**
+     * Sets the quantity of a cart item in memory.
+     *
+     * @return a copy of the cart with the change applied, its version is the last flushed one, or
+     *         empty when every session is taken and the change has to be written directly
+     */
+    public Optional<Cart> updateItemQuantity(Long cartId, Long cartItemId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        while (true) {
+            Session session = session(cartId, true);
+            if (session == null) {
+                refusedSessions.increment();
+                return Optional.empty();
+            }
+            session.lock.lock();
+            try {
+                if (session.closed) {
+                    // Flushed and evicted between the lookup and the lock
+                    continue;
+                }
+                applyQuantity(session, cartItemId, quantity);
+                if (session.dirty >= dirtyThreshold) {
+                    flush(session);
+                }
+                return Optional.of(copy(session.cart));
+            } finally {
+                session.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the pending changes of a cart and drops its session, no-op when the cart has none.
+     */
+    public void close(Long cartId) {
+        Session session = sessions.get(cartId);
+        if (session == null) {
+            return;
+        }
+        session.lock.lock();
+        try {
+            if (!session.closed) {
+                flush(session);
+                evict(session);
+            }
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes sessions idle for longer than the timeout, makes room when every session is taken and
+     * deletes the write-ahead segments whose changes are all flushed.
+     */
+    @Scheduled(fixedDelayString = "${checkout.cart-session.sweep-interval-ms:1000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        for (Session session : sessions.values()) {
+            if (now - session.lastTouchedNanos > idleTimeoutNanos) {
+                closeQuietly(session.cart.getId());
+            }
+        }
+        if (sessions.size() >= maxSessions) {
+            evictLeastRecentlyUsed(sessions.size() - maxSessions + Math.max(maxSessions / 10, 1));
+        }
+        try {
+            checkpointedSegments.add(wal.checkpoint());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replays the changes left in the write-ahead file by a previous run and flushes them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        walLock.writeLock().lock();
+        try {
+            Map<Long, List<CartSessionWal.Entry>> pending = new LinkedHashMap<>();
+            for (CartSessionWal.Entry entry : wal.readRecovered()) {
+                if (entry.flushed()) {
+                    pending.remove(entry.cartId());
+                } else {
+                    pending.computeIfAbsent(entry.cartId(), key -> new ArrayList<>()).add(entry);
+                }
+            }
+            pending.forEach((cartId, entries) -> {
+                if (recover(cartId, entries)) {
+                    recoveredCarts.increment();
+                } else {
+                    skippedCarts.increment();
+                }
+            });
+            wal.dropRecovered();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            walLock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        for (Long cartId : new ArrayList<>(sessions.keySet())) {
+            closeQuietly(cartId);
+        }
+        wal.close();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("coalescedChanges", coalescedChanges.sum());
+        stats.put("flushes", flushes.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("refusedSessions", refusedSessions.sum());
+        stats.put("recoveredCarts", recoveredCarts.sum());
+        stats.put("skippedCarts", skippedCarts.sum());
+        stats.put("walSegments", wal.getSegments());
+        stats.put("checkpointedSegments", checkpointedSegments.sum());
+        stats.put("walSyncs", wal.getSyncs());
+        return stats;
+    }
+
+    private boolean recover(Long cartId, List<CartSessionWal.Entry> entries) {
+        Session session;
+        try {
+            // Recovery runs before requests are served and evicts every cart it flushes
+            session = session(cartId, false);
+        } catch (EntityNotFoundException e) {
+            return false;
+        }
+        session.lock.lock();
+        try {
+            if (session.cart.getVersion() != entries.get(0).cartVersion()) {
+                evict(session);
+                return false;
+            }
+            for (CartSessionWal.Entry entry : entries) {
+                applyQuantity(session, entry.itemId(), entry.quantity());
+            }
+            flush(session);
+            evict(session);
+            return true;
+        } catch (RuntimeException e) {
+            // Stock or items of the recorded changes are gone
+            discard(session);
+            return false;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * The session of a cart, loading the cart when it has none. Returns null when {@code bounded}
+     * and every session is taken.
+     */
+    private Session session(Long cartId, boolean bounded) {
+        Session session = sessions.get(cartId);
+        if (session != null) {
+            return session;
+        }
+        if (bounded && sessions.size() >= maxSessions) {
+            return null;
+        }
+        Session loaded = transactionTemplate.execute(status -> {
+            Cart cart = cartChangeWriter.load(cartId);
+            // Applied discounts are serialized with every response, long after this transaction
+            for (CartItem item : cart.getItems()) {
+                Discount discount = item.getAppliedDiscount();
+                if (discount != null) {
+                    discount.getProductIds().size();
+                    discount.getCategories().size();
+                }
+            }
+            return new Session(cart, cartChangeWriter.capture(cart));
+        });
+        Session existing = sessions.putIfAbsent(cartId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private void applyQuantity(Session session, Long cartItemId, int quantity) {
+        CartItem item = session.cart.findItem(cartItemId);
+        if (item == null) {
+            throw new EntityNotFoundException("Cart item not found with id: " + cartItemId);
+        }
+        Long productId = item.getProduct().getId();
+
+        // Units added since the last flush stay taken from the ledger until they are journaled
+        CartLine flushed = session.before.get(cartItemId);
+        int flushedQuantity = flushed == null ? 0 : flushed.quantity();
+        int held = session.held.getOrDefault(productId, 0);
+        long generation = session.heldGenerations.getOrDefault(productId, InventoryLedger.NOT_ACQUIRED);
+        if (held > 0 && generation != inventoryLedger.generation(productId)) {
+            // The counter was reloaded since, the units held from the old one went away with it
+            held = 0;
+        }
+        int needed = Math.max(quantity - flushedQuantity, 0);
+        int acquired = Math.max(needed - held, 0);
+        if (acquired > 0) {
+            long acquiredFrom = inventoryLedger.tryAcquire(productId, acquired);
+            if (acquiredFrom != InventoryLedger.NOT_ACQUIRED && held > 0 && acquiredFrom != generation) {
+                // Reloaded right now, take the earlier units again from the new counter
+                inventoryLedger.release(productId, acquired, acquiredFrom);
+                held = 0;
+                acquired = needed;
+                acquiredFrom = inventoryLedger.tryAcquire(productId, acquired);
+            }
+            if (acquiredFrom == InventoryLedger.NOT_ACQUIRED) {
+                throw new IllegalArgumentException("Not enough stock available for product: " + item.getProduct().getName());
+            }
+            generation = acquiredFrom;
+        }
+
+        walLock.readLock().lock();
+        try {
+            wal.appendQuantity(session.cart.getId(), session.cart.getVersion(), cartItemId, quantity);
+            session.dirty++;
+        } catch (IOException e) {
+            if (acquired > 0) {
+                inventoryLedger.release(productId, acquired, generation);
+            }
+            throw new UncheckedIOException(e);
+        } finally {
+            walLock.readLock().unlock();
+        }
+        if (needed < held) {
+            inventoryLedger.release(productId, held - needed, generation);
+        }
+        session.held.put(productId, needed);
+        session.heldGenerations.put(productId, generation);
+
+        item.setQuantity(quantity);
+        item.calculateTotalPrice();
+        session.cart.calculateTotalAmount();
+        session.cart.setUpdatedAt(LocalDateTime.now());
+        session.cart.setReservationExpiresAt(LocalDateTime.now().plus(reservationTtl));
+        session.lastTouchedNanos = System.nanoTime();
+        coalescedChanges.increment();
+    }
+
+    private void flush(Session session) {
+        if (session.dirty == 0) {
+            return;
+        }
+        Cart cart = session.cart;
+        long version = cart.getVersion();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Map.Entry<Long, Integer> change : stockChanges(session).entrySet()) {
+                    if (change.getValue() > 0) {
+                        inventoryLedger.recordAcquired(change.getKey(), change.getValue(),
+                                session.heldGenerations.getOrDefault(change.getKey(), InventoryLedger.NOT_ACQUIRED));
+                    } else if (change.getValue() < 0) {
+                        inventoryService.release(change.getKey(), -change.getValue());
+                    }
+                }
+                cartChangeWriter.write(cart, session.before);
+            });
+        } catch (OptimisticLockingFailureException e) {
+            // Changed behind the session, e.g. emptied by the reservation reaper
+            cart.setVersion(version);
+            conflicts.increment();
+            discard(session);
+            throw e;
+        } catch (RuntimeException e) {
+            cart.setVersion(version);
+            throw e;
+        }
+
+        session.before = cartChangeWriter.capture(cart);
+        session.held.clear();
+        session.heldGenerations.clear();
+        session.dirty = 0;
+        flushes.increment();
+        cartSnapshotCache.invalidate(cart.getId(), cart.getVersion());
+        appendFlushed(cart.getId(), cart.getVersion());
+    }
+
+    private Map<Long, Integer> stockChanges(Session session) {
+        Map<Long, Integer> changes = new HashMap<>();
+        for (CartLine line : session.before.values()) {
+            changes.merge(line.productId(), -line.quantity(), Integer::sum);
+        }
+        for (CartItem item : session.cart.getItems()) {
+            changes.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return changes;
+    }
+
+    private void discard(Session session) {
+        session.held.forEach((productId, held) -> {
+            if (held > 0) {
+                inventoryLedger.release(productId, held, session.heldGenerations.get(productId));
+            }
+        });
+        session.held.clear();
+        session.heldGenerations.clear();
+        session.dirty = 0;
+        evict(session);
+        appendFlushed(session.cart.getId(), session.cart.getVersion());
+    }
+
+    private void evict(Session session) {
+        session.closed = true;
+        sessions.remove(session.cart.getId(), session);
+    }
+
+    private void evictLeastRecentlyUsed(int count) {
+        List<Session> victims = new ArrayList<>(sessions.values());
+        victims.sort(Comparator.comparingLong(session -> session.lastTouchedNanos));
+        for (Session session : victims.subList(0, Math.min(count, victims.size()))) {
+            closeQuietly(session.cart.getId());
+        }
+    }
+
+    private void closeQuietly(Long cartId) {
+        try {
+            close(cartId);
+        } catch (RuntimeException e) {
+            // Still dirty and recorded in the write-ahead file, retried by the next sweep. The session
+            // keeps its slot, new carts are refused while none is free
+        }
+    }
+
+    private void appendFlushed(Long cartId, long cartVersion) {
+        walLock.readLock().lock();
+        try {
+            wal.appendFlushed(cartId, cartVersion);
+        } catch (IOException e) {
+            // Replaying the cart would find a newer version and skip it
+        } finally {
+            walLock.readLock().unlock();
+        }
+    }
+
+    private static Cart copy(Cart cart) {
+        Cart copy = new Cart();
+        copy.setId(cart.getId());
+        copy.setCreatedAt(cart.getCreatedAt());
+        copy.setUpdatedAt(cart.getUpdatedAt());
+        copy.setTotalAmount(cart.getTotalAmount());
+        copy.setReservationExpiresAt(cart.getReservationExpiresAt());
+        copy.setVersion(cart.getVersion());
+        for (CartItem item : cart.getItems()) {
+            CartItem itemCopy = new CartItem();
+            itemCopy.setId(item.getId());
+            itemCopy.setCart(copy);
+            itemCopy.setProduct(item.getProduct());
+            itemCopy.setQuantity(item.getQuantity());
+            itemCopy.setUnitPrice(item.getUnitPrice());
+            itemCopy.setTotalPrice(item.getTotalPrice());
+            itemCopy.setAppliedDiscount(item.getAppliedDiscount());
+            itemCopy.setDiscountAmount(item.getDiscountAmount());
+            copy.getItems().add(itemCopy);
+        }
+        return copy;
+    }
+
+    private static final class Session {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Cart cart;
+        // Lines as last written to the database, keyed by item id
+        private Map<Long, CartLine> before;
+        // Units taken from the ledger per product and not journaled yet
+        private final Map<Long, Integer> held = new HashMap<>();
+        // Ledger counter generation the held units were taken from
+        private final Map<Long, Long> heldGenerations = new HashMap<>();
+        private volatile int dirty;
+        private volatile long lastTouchedNanos = System.nanoTime();
+        private boolean closed;
+
+        private Session(Cart cart, Map<Long, CartLine> before) {
+            this.cart = cart;
+            this.before = before;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package Altech.checkout.service.cart;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead file of the cart changes held in memory by {@link CartSessionStore}.
+ * <p>
+ * Records have a fixed size and end with a CRC32 of their content, so reading stops cleanly at a
+ * record torn by a crash. A quantity record is written before the change is applied in memory, and
+ * a flushed record once the changes of a cart are committed to the database.
+ * <p>
+ * The file is a run of numbered segments next to {@code path}, a new one is started once the
+ * current one reaches {@code segmentBytes}. {@link #checkpoint()} deletes the segments no cart with
+ * unflushed changes still needs, so the file stays bounded while busy carts keep changing. Quantity
+ * records are made durable by group commit: one fsync covers every record written before it
+ * started, and writers arriving meanwhile wait for the next one instead of each forcing the file.
+ */
+final class CartSessionWal implements Closeable {
+    private static final byte QUANTITY = 1;
+    private static final byte FLUSHED = 2;
+    // type, cart id, cart version, item id, quantity, crc
+    private static final int RECORD_SIZE = 1 + 8 + 8 + 8 + 4 + 8;
+
+    private final Path directory;
+    private final String prefix;
+    private final boolean sync;
+    private final long segmentBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+
+    // Guarded by this
+    private final TreeMap<Long, FileChannel> segments = new TreeMap<>();
+    private final Map<Long, Long> firstUnflushedSegment = new HashMap<>();
+    private long activeSegment;
+    private FileChannel active;
+    private long activeSize;
+    private long written;
+
+    // Guarded by syncLock
+    private final Object syncLock = new Object();
+    private long synced;
+    private boolean syncing;
+    private long syncs;
+
+    CartSessionWal(Path path, boolean sync, long segmentBytes) throws IOException {
+        if (segmentBytes < RECORD_SIZE) {
+            throw new IllegalArgumentException("Write-ahead segments must hold at least one record");
+        }
+        Path absolute = path.toAbsolutePath();
+        this.directory = absolute.getParent();
+        this.prefix = absolute.getFileName() + ".";
+        this.sync = sync;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        TreeMap<Long, Path> existing = leftBehind();
+        openSegment(existing.isEmpty() ? 1 : existing.lastKey() + 1);
+    }
+
+    /**
+     * Records that an item of a cart loaded at {@code cartVersion} was set to {@code quantity}, and
+     * returns once the record is durable.
+     */
+    void appendQuantity(long cartId, long cartVersion, long itemId, int quantity) throws IOException {
+        long sequence;
+        synchronized (this) {
+            sequence = append(QUANTITY, cartId, cartVersion, itemId, quantity);
+            firstUnflushedSegment.putIfAbsent(cartId, activeSegment);
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Records that every earlier change of the cart is in the database or was given up. Not forced,
+     * losing it only replays changes that recovery then skips by their cart version.
+     */
+    synchronized void appendFlushed(long cartId, long cartVersion) throws IOException {
+        append(FLUSHED, cartId, cartVersion, 0, 0);
+        firstUnflushedSegment.remove(cartId);
+    }
+
+    /**
+     * Deletes the segments before the oldest one holding a change that is not flushed yet.
+     *
+     * @return the number of segments deleted
+     */
+    synchronized int checkpoint() throws IOException {
+        long keepFrom = activeSegment;
+        for (long segment : firstUnflushedSegment.values()) {
+            keepFrom = Math.min(keepFrom, segment);
+        }
+        int deleted = 0;
+        Map<Long, FileChannel> obsolete = segments.headMap(keepFrom);
+        for (Map.Entry<Long, FileChannel> segment : new ArrayList<>(obsolete.entrySet())) {
+            segment.getValue().close();
+            Files.deleteIfExists(segmentPath(segment.getKey()));
+            obsolete.remove(segment.getKey());
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * Every intact record in the segments left by a previous run, in write order. Reading a segment
+     * stops at its first torn or corrupt record.
+     */
+    List<Entry> readRecovered() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : leftBehind().values()) {
+            read(segment, entries);
+        }
+        return entries;
+    }
+
+    /**
+     * Deletes the segments left by a previous run once recovery has flushed or skipped their changes.
+     */
+    void dropRecovered() throws IOException {
+        for (Path segment : leftBehind().values()) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    synchronized int getSegments() {
+        return segments.size();
+    }
+
+    long getSyncs() {
+        synchronized (syncLock) {
+            return syncs;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (FileChannel channel : segments.values()) {
+            channel.close();
+        }
+    }
+
+    private long append(byte type, long cartId, long cartVersion, long itemId, int quantity) throws IOException {
+        if (activeSize + RECORD_SIZE > segmentBytes) {
+            // Earlier segments are durable before the active one moves on, a sync only forces the active one
+            if (sync) {
+                active.force(false);
+            }
+            markSynced(written);
+            openSegment(activeSegment + 1);
+        }
+        buffer.clear();
+        buffer.put(type).putLong(cartId).putLong(cartVersion).putLong(itemId).putInt(quantity);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            active.write(buffer);
+        }
+        activeSize += RECORD_SIZE;
+        return ++written;
+    }
+
+    private void awaitDurable(long sequence) throws IOException {
+        if (!sync) {
+            return;
+        }
+        synchronized (syncLock) {
+            while (synced < sequence && syncing) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for the write-ahead file");
+                }
+            }
+            if (synced >= sequence) {
+                return;
+            }
+            syncing = true;
+        }
+
+        // This writer forces the file for itself and everyone who wrote before the force starts
+        long target;
+        FileChannel channel;
+        synchronized (this) {
+            target = written;
+            channel = active;
+        }
+        boolean forced = false;
+        try {
+            channel.force(false);
+            forced = true;
+        } catch (ClosedChannelException e) {
+            // Rotated and checkpointed meanwhile, rotation forced it before moving on
+            forced = true;
+        } finally {
+            synchronized (syncLock) {
+                syncing = false;
+                if (forced) {
+                    synced = Math.max(synced, target);
+                    syncs++;
+                }
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    private void markSynced(long sequence) {
+        synchronized (syncLock) {
+            synced = Math.max(synced, sequence);
+            syncLock.notifyAll();
+        }
+    }
+
+    private void openSegment(long index) throws IOException {
+        active = FileChannel.open(segmentPath(index), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeSegment = index;
+        activeSize = 0;
+        segments.put(index, active);
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(prefix + String.format("%08d", index));
+    }
+
+    // Segments in the directory that this instance did not write
+    private synchronized TreeMap<Long, Path> leftBehind() throws IOException {
+        TreeMap<Long, Path> found = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Long index = segmentIndex(file);
+                if (index != null && !segments.containsKey(index)) {
+                    found.put(index, file);
+                }
+            });
+        }
+        return found;
+    }
+
+    private Long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void read(Path segment, List<Entry> entries) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        try (FileChannel reader = FileChannel.open(segment, StandardOpenOption.READ)) {
+            while (true) {
+                record.clear();
+                while (record.hasRemaining()) {
+                    if (reader.read(record) < 0) {
+                        return;
+                    }
+                }
+                record.flip();
+                CRC32 crc = new CRC32();
+                crc.update(record.array(), 0, RECORD_SIZE - 8);
+                if (crc.getValue() != record.getLong(RECORD_SIZE - 8)) {
+                    return;
+                }
+                byte type = record.get();
+                entries.add(new Entry(type == FLUSHED, record.getLong(), record.getLong(), record.getLong(),
+                        record.getInt()));
+            }
+        }
+    }
+
+    record Entry(boolean flushed, long cartId, long cartVersion, long itemId, int quantity) {
+    }
+}
@@ -0,0 +1,71 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Discount;
+import Altech.checkout.money.Cents;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Copies the scheduling and scope attributes of a {@link Discount} so rules never hold on to the entity.
+ */
+@Getter
+public abstract class AbstractDiscountRule implements DiscountRule {
+    private final Long discountId;
+    private final String name;
+    private final Discount.DiscountType type;
+    private final int minQuantity;
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+    private final Set<Long> productIds;
+    private final Set<String> categories;
+
+    protected AbstractDiscountRule(Discount discount) {
+        this.discountId = discount.getId();
+        this.name = discount.getName();
+        this.type = discount.getType();
+        this.minQuantity = discount.getMinQuantity() == null ? 0 : discount.getMinQuantity();
+        this.startDate = discount.getStartDate();
+        this.endDate = discount.getEndDate();
+        this.productIds = discount.getProductIds() == null ? Set.of() : Set.copyOf(discount.getProductIds());
+        this.categories = discount.getCategories() == null ? Set.of() : Set.copyOf(discount.getCategories());
+    }
+
+    /**
+     * Rounds a percentage to a whole percent, rates have always been applied with two decimals.
+     */
+    protected static long toPercent(BigDecimal percentage) {
+        return percentage.setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    protected static long originalTotal(long unitPrice, int quantity) {
+        return Cents.times(unitPrice, quantity);
+    }
+
+    protected static long[] untouched(int size) {
+        long[] amounts = new long[size];
+        Arrays.fill(amounts, UNTOUCHED);
+        return amounts;
+    }
+
+    /**
+     * Item positions ordered by quantity, highest first, so unit-based discounts favour the largest lines.
+     * Equal quantities keep their cart order.
+     */
+    protected static int[] byQuantityDescending(int[] quantities) {
+        int[] order = new int[quantities.length];
+        for (int i = 0; i < order.length; i++) {
+            int position = i;
+            while (position > 0 && quantities[order[position - 1]] < quantities[i]) {
+                order[position] = order[position - 1];
+                position--;
+            }
+            order[position] = i;
+        }
+        return order;
+    }
+}
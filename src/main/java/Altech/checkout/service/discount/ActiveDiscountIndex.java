@@ -0,0 +1,157 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Discount;
+import Altech.checkout.repository.DiscountRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * In-process index of the discounts that are currently in effect.
+ * <p>
+ * The index is loaded once at startup and kept up to date by {@code DiscountServiceImpl}.
+ * Discounts whose start or end date lies in the future are parked in time buckets keyed by
+ * the instant their status changes, so reads only re-evaluate the discounts whose bucket has
+ * been reached instead of filtering the whole catalog on every request.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActiveDiscountIndex {
+    private final DiscountRepository discountRepository;
+    private final DiscountCompiler discountCompiler;
+
+    // All rules that are active now or may become active later, guarded by this
+    private final Map<Long, DiscountRule> known = new HashMap<>();
+    // Rules currently in effect, guarded by this
+    private final Map<Long, DiscountRule> live = new LinkedHashMap<>();
+    // Instant at which a rule's status may change -> ids to re-evaluate, guarded by this
+    private final NavigableMap<LocalDateTime, Set<Long>> transitions = new TreeMap<>();
+    private long generation;
+
+    private volatile Snapshot snapshot = new Snapshot(ActiveDiscounts.EMPTY, null);
+
+    @PostConstruct
+    public synchronized void reload() {
+        known.clear();
+        live.clear();
+        transitions.clear();
+        LocalDateTime now = LocalDateTime.now();
+        for (Discount discount : discountRepository.findAllActiveWithScopes()) {
+            try {
+                register(discountCompiler.compile(discount), now);
+            } catch (IllegalArgumentException e) {
+                // Rows that fail validation could never be applied to a cart either
+            }
+        }
+        publish();
+    }
+
+    /**
+     * Returns the rules in effect right now without touching the database.
+     */
+    public ActiveDiscounts activeDiscounts() {
+        return activeDiscounts(LocalDateTime.now());
+    }
+
+    public ActiveDiscounts activeDiscounts(LocalDateTime now) {
+        Snapshot current = snapshot;
+        if (current.nextTransition() != null && !current.nextTransition().isAfter(now)) {
+            current = advance(now);
+        }
+        return current.discounts();
+    }
+
+    public synchronized void upsert(Discount discount) {
+        unregister(discount.getId());
+        if (Boolean.TRUE.equals(discount.getIsActive())) {
+            register(discountCompiler.compile(discount), LocalDateTime.now());
+        }
+        publish();
+    }
+
+    public synchronized void remove(Long discountId) {
+        unregister(discountId);
+        publish();
+    }
+
+    private synchronized Snapshot advance(LocalDateTime now) {
+        Map.Entry<LocalDateTime, Set<Long>> bucket;
+        while ((bucket = transitions.firstEntry()) != null && !bucket.getKey().isAfter(now)) {
+            transitions.pollFirstEntry();
+            for (Long id : bucket.getValue()) {
+                DiscountRule rule = known.get(id);
+                if (rule != null) {
+                    evaluate(rule, now);
+                }
+            }
+        }
+        publish();
+        return snapshot;
+    }
+
+    private void register(DiscountRule rule, LocalDateTime now) {
+        if (isExpired(rule, now)) {
+            return;
+        }
+        known.put(rule.getDiscountId(), rule);
+        // A discount starts applying strictly after its start date and stops at its end date
+        if (rule.getStartDate() != null && !rule.getStartDate().isBefore(now)) {
+            bucket(rule.getStartDate().plusNanos(1)).add(rule.getDiscountId());
+        }
+        if (rule.getEndDate() != null) {
+            bucket(rule.getEndDate()).add(rule.getDiscountId());
+        }
+        evaluate(rule, now);
+    }
+
+    private void unregister(Long discountId) {
+        DiscountRule previous = known.remove(discountId);
+        live.remove(discountId);
+        if (previous == null) {
+            return;
+        }
+        if (previous.getStartDate() != null) {
+            removeFromBucket(previous.getStartDate().plusNanos(1), discountId);
+        }
+        if (previous.getEndDate() != null) {
+            removeFromBucket(previous.getEndDate(), discountId);
+        }
+    }
+
+    private void evaluate(DiscountRule rule, LocalDateTime now) {
+        if (isExpired(rule, now)) {
+            known.remove(rule.getDiscountId());
+            live.remove(rule.getDiscountId());
+        } else if (rule.getStartDate() == null || rule.getStartDate().isBefore(now)) {
+            live.put(rule.getDiscountId(), rule);
+        } else {
+            live.remove(rule.getDiscountId());
+        }
+    }
+
+    private boolean isExpired(DiscountRule rule, LocalDateTime now) {
+        return rule.getEndDate() != null && !rule.getEndDate().isAfter(now);
+    }
+
+    private Set<Long> bucket(LocalDateTime instant) {
+        return transitions.computeIfAbsent(instant, key -> new HashSet<>());
+    }
+
+    private void removeFromBucket(LocalDateTime instant, Long discountId) {
+        Set<Long> ids = transitions.get(instant);
+        if (ids != null && ids.remove(discountId) && ids.isEmpty()) {
+            transitions.remove(instant);
+        }
+    }
+
+    private void publish() {
+        LocalDateTime next = transitions.isEmpty() ? null : transitions.firstKey();
+        snapshot = new Snapshot(new ActiveDiscounts(++generation, live.values()), next);
+    }
+
+    private record Snapshot(ActiveDiscounts discounts, LocalDateTime nextTransition) {
+    }
+}
@@ -0,0 +1,107 @@
+package Altech.checkout.service.discount;
+
+import java.util.*;
+
+/**
+ * Immutable view of the rules in effect, indexed by the product and category they are limited to.
+ * <p>
+ * Every bucket is ordered by minimum quantity so the rules that match a product group are always
+ * a prefix of the bucket.
+ */
+public final class ActiveDiscounts {
+    public static final ActiveDiscounts EMPTY = new ActiveDiscounts(0, List.of());
+
+    private final long generation;
+    private final List<DiscountRule> rules;
+    private final Bucket global;
+    private final Map<Long, Bucket> byProduct;
+    private final Map<String, Bucket> byCategory;
+
+    ActiveDiscounts(long generation, Collection<DiscountRule> rules) {
+        List<DiscountRule> globalRules = new ArrayList<>();
+        Map<Long, List<DiscountRule>> productRules = new HashMap<>();
+        Map<String, List<DiscountRule>> categoryRules = new HashMap<>();
+        for (DiscountRule rule : rules) {
+            if (rule.isGlobal()) {
+                globalRules.add(rule);
+                continue;
+            }
+            for (Long productId : rule.getProductIds()) {
+                productRules.computeIfAbsent(productId, key -> new ArrayList<>()).add(rule);
+            }
+            for (String category : rule.getCategories()) {
+                categoryRules.computeIfAbsent(category, key -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        this.generation = generation;
+        this.rules = List.copyOf(rules);
+        this.global = new Bucket(globalRules);
+        this.byProduct = new HashMap<>();
+        productRules.forEach((productId, bucket) -> byProduct.put(productId, new Bucket(bucket)));
+        this.byCategory = new HashMap<>();
+        categoryRules.forEach((category, bucket) -> byCategory.put(category, new Bucket(bucket)));
+    }
+
+    /**
+     * Increases every time the set of active rules changes, usable as a cache key.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    public List<DiscountRule> all() {
+        return rules;
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * Rules that may apply to a product group: unscoped rules plus the rules limited to the product
+     * or its category, restricted to those whose minimum quantity {@code totalQuantity} satisfies.
+     */
+    public List<DiscountRule> candidates(Long productId, String category, int totalQuantity) {
+        Bucket productBucket = byProduct.get(productId);
+        Bucket categoryBucket = category == null ? null : byCategory.get(category);
+        if (productBucket == null && categoryBucket == null) {
+            return global.matching(totalQuantity);
+        }
+
+        Set<DiscountRule> candidates = new LinkedHashSet<>(global.matching(totalQuantity));
+        if (productBucket != null) {
+            candidates.addAll(productBucket.matching(totalQuantity));
+        }
+        if (categoryBucket != null) {
+            candidates.addAll(categoryBucket.matching(totalQuantity));
+        }
+        return new ArrayList<>(candidates);
+    }
+
+    private static final class Bucket {
+        private final List<DiscountRule> rules;
+        private final int[] minQuantities;
+
+        private Bucket(List<DiscountRule> rules) {
+            List<DiscountRule> sorted = new ArrayList<>(rules);
+            sorted.sort(Comparator.comparingInt(DiscountRule::getMinQuantity));
+            this.rules = List.copyOf(sorted);
+            this.minQuantities = sorted.stream().mapToInt(DiscountRule::getMinQuantity).toArray();
+        }
+
+        private List<DiscountRule> matching(int totalQuantity) {
+            int low = 0;
+            int high = minQuantities.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (minQuantities[mid] <= totalQuantity) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return rules.subList(0, low);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Discount;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives one unit away for every {@code minQuantity} units bought.
+ */
+public final class BuyXGetYFreeDiscountRule extends AbstractDiscountRule {
+    private final int groupSize;
+
+    BuyXGetYFreeDiscountRule(Discount discount) {
+        super(discount);
+        if (discount.getMinQuantity() == null || discount.getMinQuantity() < 1) {
+            throw new IllegalArgumentException("Buy X get Y free discount requires a positive minQuantity");
+        }
+        this.groupSize = discount.getMinQuantity() + 1;
+    }
+
+    @Override
+    public long[] allocate(long[] unitPrices, int[] quantities, int totalQuantity) {
+        long[] amounts = untouched(unitPrices.length);
+        int remainingFreeItems = totalQuantity / groupSize;
+        for (int i : byQuantityDescending(quantities)) {
+            if (remainingFreeItems <= 0) break;
+
+            int freeForThisItem = Math.min(remainingFreeItems, quantities[i]);
+            amounts[i] = originalTotal(unitPrices[i], freeForThisItem);
+            remainingFreeItems -= freeForThisItem;
+        }
+        return amounts;
+    }
+
+    @Component
+    public static class Factory implements DiscountRuleFactory {
+        @Override
+        public Discount.DiscountType getType() {
+            return Discount.DiscountType.BUY_X_GET_Y_FREE;
+        }
+
+        @Override
+        public DiscountRule compile(Discount discount) {
+            return new BuyXGetYFreeDiscountRule(discount);
+        }
+    }
+}
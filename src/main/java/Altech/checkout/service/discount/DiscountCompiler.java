@@ -0,0 +1,35 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Discount;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns {@link Discount} entities into {@link DiscountRule}s using the registered {@link DiscountRuleFactory} beans.
+ */
+@Component
+public class DiscountCompiler {
+    private final Map<Discount.DiscountType, DiscountRuleFactory> factories = new EnumMap<>(Discount.DiscountType.class);
+
+    public DiscountCompiler(List<DiscountRuleFactory> factories) {
+        for (DiscountRuleFactory factory : factories) {
+            if (this.factories.putIfAbsent(factory.getType(), factory) != null) {
+                throw new IllegalStateException("Duplicate discount rule factory for type: " + factory.getType());
+            }
+        }
+    }
+
+    public DiscountRule compile(Discount discount) {
+        if (discount.getType() == null || discount.getValue() == null) {
+            throw new IllegalArgumentException("Discount type and value are required");
+        }
+        DiscountRuleFactory factory = factories.get(discount.getType());
+        if (factory == null) {
+            throw new IllegalArgumentException("Unsupported discount type: " + discount.getType());
+        }
+        return factory.compile(discount);
+    }
+}
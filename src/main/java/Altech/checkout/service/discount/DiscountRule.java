@@ -0,0 +1,55 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Discount;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Immutable, pre-evaluated form of a {@link Discount} produced by {@link DiscountCompiler}.
+ */
+public interface DiscountRule {
+    /**
+     * Marks an item left alone by {@link #allocate}, as opposed to one discounted by zero.
+     */
+    long UNTOUCHED = Long.MIN_VALUE;
+
+    Long getDiscountId();
+
+    String getName();
+
+    Discount.DiscountType getType();
+
+    /**
+     * Minimum total quantity of a product before the rule applies, {@code 0} when unrestricted.
+     */
+    int getMinQuantity();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+
+    /**
+     * Products the rule is limited to, empty when not limited by product.
+     */
+    Set<Long> getProductIds();
+
+    /**
+     * Product categories the rule is limited to, empty when not limited by category.
+     */
+    Set<String> getCategories();
+
+    /**
+     * Computes the discount of each item of a product group in cents, given the unit prices in cents and
+     * the quantities of the items in the same order. Items the rule does not touch are {@link #UNTOUCHED}.
+     */
+    long[] allocate(long[] unitPrices, int[] quantities, int totalQuantity);
+
+    default boolean isApplicable(int totalQuantity) {
+        return getMinQuantity() <= totalQuantity;
+    }
+
+    default boolean isGlobal() {
+        return getProductIds().isEmpty() && getCategories().isEmpty();
+    }
+}
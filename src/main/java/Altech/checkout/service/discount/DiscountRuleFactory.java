@@ -0,0 +1,13 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Discount;
+
+/**
+ * Compiles one {@link Discount.DiscountType} into {@link DiscountRule}s.
+ * Every Spring bean implementing this interface is picked up by {@link DiscountCompiler}.
+ */
+public interface DiscountRuleFactory {
+    Discount.DiscountType getType();
+
+    DiscountRule compile(Discount discount);
+}
@@ -0,0 +1,55 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Discount;
+import Altech.checkout.money.Cents;
+import org.springframework.stereotype.Component;
+
+/**
+ * Takes a fixed amount off the product, distributed proportionally over its items.
+ */
+public final class FixedAmountDiscountRule extends AbstractDiscountRule {
+    // Share of an item in the group total, kept to four decimals
+    private static final long RATIO_SCALE = 10_000;
+
+    private final long amount;
+
+    FixedAmountDiscountRule(Discount discount) {
+        super(discount);
+        this.amount = Cents.of(discount.getValue());
+    }
+
+    @Override
+    public long[] allocate(long[] unitPrices, int[] quantities, int totalQuantity) {
+        long[] originals = new long[unitPrices.length];
+        long totalOriginalPrice = 0;
+        for (int i = 0; i < originals.length; i++) {
+            originals[i] = originalTotal(unitPrices[i], quantities[i]);
+            totalOriginalPrice = Math.addExact(totalOriginalPrice, originals[i]);
+        }
+
+        if (totalOriginalPrice == 0) {
+            return untouched(originals.length);
+        }
+        // Never take off more than the product group is worth
+        long applicableAmount = Math.min(amount, totalOriginalPrice);
+        long[] amounts = new long[originals.length];
+        for (int i = 0; i < amounts.length; i++) {
+            long ratio = Cents.mulDiv(originals[i], RATIO_SCALE, totalOriginalPrice);
+            amounts[i] = Cents.mulDiv(applicableAmount, ratio, RATIO_SCALE);
+        }
+        return amounts;
+    }
+
+    @Component
+    public static class Factory implements DiscountRuleFactory {
+        @Override
+        public Discount.DiscountType getType() {
+            return Discount.DiscountType.FIXED_AMOUNT;
+        }
+
+        @Override
+        public DiscountRule compile(Discount discount) {
+            return new FixedAmountDiscountRule(discount);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Discount;
+import Altech.checkout.money.Cents;
+import org.springframework.stereotype.Component;
+
+/**
+ * Takes a percentage off every unit of the product.
+ */
+public final class PercentageDiscountRule extends AbstractDiscountRule {
+    private final long percent;
+
+    PercentageDiscountRule(Discount discount) {
+        super(discount);
+        this.percent = toPercent(discount.getValue());
+    }
+
+    @Override
+    public long[] allocate(long[] unitPrices, int[] quantities, int totalQuantity) {
+        long[] amounts = new long[unitPrices.length];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = Cents.mulDiv(originalTotal(unitPrices[i], quantities[i]), percent, 100);
+        }
+        return amounts;
+    }
+
+    @Component
+    public static class Factory implements DiscountRuleFactory {
+        @Override
+        public Discount.DiscountType getType() {
+            return Discount.DiscountType.PERCENTAGE;
+        }
+
+        @Override
+        public DiscountRule compile(Discount discount) {
+            return new PercentageDiscountRule(discount);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Discount;
+import Altech.checkout.money.Cents;
+import org.springframework.stereotype.Component;
+
+/**
+ * Discounts every second unit of the product.
+ */
+public final class SecondUnitPercentageDiscountRule extends AbstractDiscountRule {
+    private final long remainingPercent;
+
+    SecondUnitPercentageDiscountRule(Discount discount) {
+        super(discount);
+        this.remainingPercent = 100 - toPercent(discount.getValue());
+    }
+
+    @Override
+    public long[] allocate(long[] unitPrices, int[] quantities, int totalQuantity) {
+        long[] amounts = untouched(unitPrices.length);
+        int remainingDiscountedItems = totalQuantity / 2;
+        for (int i : byQuantityDescending(quantities)) {
+            if (remainingDiscountedItems <= 0) break;
+
+            int discountedForThisItem = Math.min(remainingDiscountedItems, quantities[i] / 2);
+            amounts[i] = Cents.mulDiv(originalTotal(unitPrices[i], discountedForThisItem), remainingPercent, 100);
+            remainingDiscountedItems -= discountedForThisItem;
+        }
+        return amounts;
+    }
+
+    @Component
+    public static class Factory implements DiscountRuleFactory {
+        @Override
+        public Discount.DiscountType getType() {
+            return Discount.DiscountType.SECOND_UNIT_PERCENTAGE;
+        }
+
+        @Override
+        public DiscountRule compile(Discount discount) {
+            return new SecondUnitPercentageDiscountRule(discount);
+        }
+    }
+}
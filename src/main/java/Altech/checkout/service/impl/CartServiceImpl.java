@@ -1,27 +1,74 @@
 package Altech.checkout.service.impl;
 
+import Altech.checkout.cache.CartSnapshotCache;
+import Altech.checkout.cache.ReceiptCache;
+import Altech.checkout.dto.CartItemOperation;
+import Altech.checkout.dto.CartLine;
+import Altech.checkout.dto.CartSearchCriteria;
+import Altech.checkout.dto.CartSnapshot;
+import Altech.checkout.dto.CartSummary;
+import Altech.checkout.dto.CartSummaryPage;
+import Altech.checkout.dto.Receipt;
 import Altech.checkout.model.*;
 import Altech.checkout.repository.CartRepository;
 import Altech.checkout.repository.DiscountRepository;
 import Altech.checkout.service.CartService;
+import Altech.checkout.service.InventoryService;
 import Altech.checkout.service.ProductService;
+import Altech.checkout.service.cart.CartCommandExecutor;
+import Altech.checkout.service.cart.CartChangeWriter;
+import Altech.checkout.service.cart.CartSessionStore;
+import Altech.checkout.service.discount.ActiveDiscountIndex;
+import Altech.checkout.service.discount.ActiveDiscounts;
+import Altech.checkout.service.discount.DiscountRule;
+import Altech.checkout.service.pricing.CartPricer;
+import Altech.checkout.service.pricing.PricedCart;
+import Altech.checkout.service.pricing.PricedLine;
+import Altech.checkout.service.pricing.ReceiptAssembler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class CartServiceImpl implements CartService {
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final CartRepository cartRepository;
     private final ProductService productService;
+    private final InventoryService inventoryService;
     private final DiscountRepository discountRepository;
+    private final ActiveDiscountIndex activeDiscountIndex;
+    private final CartChangeWriter cartChangeWriter;
+    private final Optional<CartSessionStore> cartSessionStore;
+    private final CartCommandExecutor cartCommandExecutor;
+    private final CartPricer cartPricer;
+    private final ReceiptAssembler receiptAssembler;
+    private final ReceiptCache receiptCache;
+    private final CartSnapshotCache cartSnapshotCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${checkout.reservation.ttl:PT30M}")
+    private Duration reservationTtl;
 
     @Override
     public Cart createCart() {
@@ -34,341 +81,381 @@ public class CartServiceImpl implements CartService {
 
     @Override
     public Cart getCartById(Long id) {
-        return cartRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Cart not found with id: " + id));
+        closeSession(id);
+        return findCart(id);
+    }
+
+    @Override
+    public CartSnapshot getCartSnapshot(Long id) {
+        closeSession(id);
+        CartSnapshot snapshot = cartSnapshotCache.get(id);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        
+        // Render inside a transaction so lazy discount scopes can be serialized
+        snapshot = transactionTemplate.execute(status -> {
+            Cart cart = findCart(id);
+            return new CartSnapshot(cart.getId(), cart.getVersion(), serialize(cart));
+        });
+        cartSnapshotCache.put(snapshot);
+        return snapshot;
+    }
+
+    @Override
+    public CartSummaryPage searchCarts(CartSearchCriteria criteria, Long after, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<CartSummary> carts = cartRepository.searchSummaries(
+                after == null ? 0 : after,
+                criteria.getUpdatedFrom(),
+                criteria.getUpdatedTo(),
+                criteria.getMinTotal(),
+                criteria.getMaxTotal(),
+                criteria.getProductId(),
+                Limit.of(size));
+        Long nextCursor = carts.size() < size ? null : carts.get(carts.size() - 1).getId();
+        return new CartSummaryPage(carts, nextCursor);
     }
 
     @Override
-    public List<Cart> getAllCarts() {
-        return cartRepository.findAll();
+    @Transactional(readOnly = true)
+    public void forEachCart(CartSearchCriteria criteria, Consumer<CartSummary> action) {
+        try (Stream<CartSummary> carts = cartRepository.streamSummaries(
+                0L,
+                criteria.getUpdatedFrom(),
+                criteria.getUpdatedTo(),
+                criteria.getMinTotal(),
+                criteria.getMaxTotal(),
+                criteria.getProductId())) {
+            carts.forEach(action);
+        }
     }
 
     @Override
-    @Transactional
     public void deleteCart(Long id) {
-        Cart cart = getCartById(id);
-        cartRepository.delete(cart);
+        change(id, status -> {
+            Cart cart = findCart(id);
+            
+            // Give back the stock held by the cart
+            cart.getItems().stream()
+                    .collect(Collectors.groupingBy(item -> item.getProduct().getId(), Collectors.summingInt(CartItem::getQuantity)))
+                    .forEach(inventoryService::release);
+            
+            cartRepository.delete(cart);
+            receiptCache.evict(id);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cartSnapshotCache.evict(id);
+                }
+            });
+            return null;
+        });
     }
 
     @Override
-    @Transactional
     public Cart addItemToCart(Long cartId, Long productId, Integer quantity) {
-        Cart cart = getCartById(cartId);
-        Product product = productService.getProductById(productId);
-        
-        // Check stock
-        if (product.getStock() < quantity) {
-            throw new IllegalArgumentException("Not enough stock available for product: " + product.getName());
-        }
-        
-        // Check if the product is already in the cart
-        Optional<CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst();
-        
-        if (existingItem.isPresent()) {
-            // Update existing item quantity
-            CartItem item = existingItem.get();
-            item.setQuantity(item.getQuantity() + quantity);
-            item.setUnitPrice(product.getPrice());
-            item.calculateTotalPrice();
-        } else {
-            // Add new item to cart
-            CartItem newItem = new CartItem();
-            newItem.setCart(cart);
-            newItem.setProduct(product);
-            newItem.setQuantity(quantity);
-            newItem.setUnitPrice(product.getPrice());
-            newItem.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
-            cart.getItems().add(newItem);
-        }
-        
-        // Update cart total amount
-        updateCartTotal(cart);
-        
-        // Update product stock
-        product.setStock(product.getStock() - quantity);
-        productService.updateProduct(product.getId(), product);
-        
-        return cartRepository.save(cart);
+        return change(cartId, status -> {
+            Cart cart = cartChangeWriter.load(cartId);
+            Map<Long, CartLine> before = cartChangeWriter.capture(cart);
+            Product product = productService.getProductById(productId);
+            
+            // Reserve stock
+            if (!inventoryService.reserve(productId, quantity)) {
+                throw new IllegalArgumentException("Not enough stock available for product: " + product.getName());
+            }
+            
+            // Add to the cart, merging with an existing line of the same product
+            putItem(cart, product, quantity);
+            
+            // Update cart total amount
+            updateCartTotal(cart);
+            extendReservation(cart);
+            
+            return saveCart(cart, before);
+        });
     }
 
     @Override
-    @Transactional
     public Cart removeItemFromCart(Long cartId, Long cartItemId) {
-        Cart cart = getCartById(cartId);
-        
-        CartItem itemToRemove = cart.getItems().stream()
-                .filter(item -> item.getId().equals(cartItemId))
-                .findFirst()
-                .orElseThrow(() -> new EntityNotFoundException("Cart item not found with id: " + cartItemId));
-        
-        // Restore product stock
-        Product product = itemToRemove.getProduct();
-        product.setStock(product.getStock() + itemToRemove.getQuantity());
-        productService.updateProduct(product.getId(), product);
-        
-        // Remove item from cart
-        cart.getItems().remove(itemToRemove);
-        
-        // Update cart total amount
-        updateCartTotal(cart);
-        
-        return cartRepository.save(cart);
+        return change(cartId, status -> {
+            Cart cart = cartChangeWriter.load(cartId);
+            Map<Long, CartLine> before = cartChangeWriter.capture(cart);
+            
+            CartItem itemToRemove = findItem(cart, cartItemId);
+            
+            // Restore product stock
+            inventoryService.release(itemToRemove.getProduct().getId(), itemToRemove.getQuantity());
+            
+            // Remove item from cart
+            cart.removeItem(itemToRemove);
+            
+            // Update cart total amount
+            updateCartTotal(cart);
+            extendReservation(cart);
+            
+            return saveCart(cart, before);
+        });
     }
 
     @Override
-    @Transactional
     public Cart updateCartItemQuantity(Long cartId, Long cartItemId, Integer quantity) {
-        Cart cart = getCartById(cartId);
-        
-        CartItem itemToUpdate = cart.getItems().stream()
-                .filter(item -> item.getId().equals(cartItemId))
-                .findFirst()
-                .orElseThrow(() -> new EntityNotFoundException("Cart item not found with id: " + cartItemId));
-        
-        Product product = itemToUpdate.getProduct();
-        
-        // Calculate stock change
-        int stockChange = itemToUpdate.getQuantity() - quantity;
-        
-        // Check if stock is sufficient
-        if (stockChange < 0 && product.getStock() < Math.abs(stockChange)) {
-            throw new IllegalArgumentException("Not enough stock available for product: " + product.getName());
+        // Coalesced in memory and written later when the session tier is enabled
+        if (cartSessionStore.isPresent()) {
+            Optional<Cart> coalesced = cartCommandExecutor.execute(cartId,
+                    () -> cartSessionStore.get().updateItemQuantity(cartId, cartItemId, quantity));
+            if (coalesced.isPresent()) {
+                return coalesced.get();
+            }
+            // Every session is taken, written right away instead
         }
-        
-        // Update item quantity
-        itemToUpdate.setQuantity(quantity);
-        itemToUpdate.calculateTotalPrice();
-        
-        // Update product stock
-        product.setStock(product.getStock() + stockChange);
-        productService.updateProduct(product.getId(), product);
-        
-        // Update cart total amount
-        updateCartTotal(cart);
-        
-        return cartRepository.save(cart);
+        return change(cartId, status -> {
+            Cart cart = cartChangeWriter.load(cartId);
+            Map<Long, CartLine> before = cartChangeWriter.capture(cart);
+            
+            CartItem itemToUpdate = findItem(cart, cartItemId);
+            
+            Product product = itemToUpdate.getProduct();
+            
+            // Reserve or release the difference
+            int stockChange = quantity - itemToUpdate.getQuantity();
+            if (stockChange > 0 && !inventoryService.reserve(product.getId(), stockChange)) {
+                throw new IllegalArgumentException("Not enough stock available for product: " + product.getName());
+            } else if (stockChange < 0) {
+                inventoryService.release(product.getId(), -stockChange);
+            }
+            
+            // Update item quantity
+            itemToUpdate.setQuantity(quantity);
+            itemToUpdate.calculateTotalPrice();
+            
+            // Update cart total amount
+            updateCartTotal(cart);
+            extendReservation(cart);
+            
+            return saveCart(cart, before);
+        });
     }
 
     @Override
-    @Transactional
-    public Cart applyDiscounts(Long cartId) {
-        Cart cart = getCartById(cartId);
-        List<Discount> activeDiscounts = discountRepository.findAll().stream()
-                .filter(Discount::getIsActive)
-                .filter(d -> d.getStartDate() == null || d.getStartDate().isBefore(LocalDateTime.now()))
-                .filter(d -> d.getEndDate() == null || d.getEndDate().isAfter(LocalDateTime.now()))
-                .collect(Collectors.toList());
-        
-        // Reset all discounts
-        cart.getItems().forEach(item -> {
-            item.setAppliedDiscount(null);
-            item.setDiscountAmount(BigDecimal.ZERO);
-            item.calculateTotalPrice();
-        });
-        
-        // Group by product
-        Map<Product, List<CartItem>> itemsByProduct = cart.getItems().stream()
-                .collect(Collectors.groupingBy(CartItem::getProduct));
-        
-        // Apply discounts
-        for (Map.Entry<Product, List<CartItem>> entry : itemsByProduct.entrySet()) {
-            Product product = entry.getKey();
-            List<CartItem> items = entry.getValue();
+    public Cart applyItemOperations(Long cartId, List<CartItemOperation> operations) {
+        return change(cartId, status -> {
+            Cart cart = cartChangeWriter.load(cartId);
+            Map<Long, CartLine> before = cartChangeWriter.capture(cart);
             
-            // Calculate total quantity of the product
-            int totalQuantity = items.stream()
-                    .mapToInt(CartItem::getQuantity)
-                    .sum();
+            // Load every product added by the batch in one query
+            Set<Long> productIds = operations.stream()
+                    .filter(operation -> operation.getType() == CartItemOperation.Type.ADD)
+                    .map(CartItemOperation::getProductId)
+                    .collect(Collectors.toSet());
+            Map<Long, Product> products = new HashMap<>();
+            productService.getProductsByIds(productIds).forEach(product -> products.put(product.getId(), product));
             
-            // Find the best applicable discount
-            Discount bestDiscount = findBestDiscount(activeDiscounts, totalQuantity);
+            // Apply the operations in order, collecting the net stock change per product
+            Map<Long, Integer> stockChanges = new LinkedHashMap<>();
+            for (CartItemOperation operation : operations) {
+                if (operation.getType() == null) {
+                    throw new IllegalArgumentException("Operation type is required");
+                }
+                switch (operation.getType()) {
+                    case ADD -> {
+                        requirePositive(operation.getQuantity());
+                        Product product = products.get(operation.getProductId());
+                        if (product == null) {
+                            throw new EntityNotFoundException("Product not found with id: " + operation.getProductId());
+                        }
+                        putItem(cart, product, operation.getQuantity());
+                        stockChanges.merge(product.getId(), operation.getQuantity(), Integer::sum);
+                    }
+                    case UPDATE -> {
+                        requirePositive(operation.getQuantity());
+                        CartItem item = findItem(cart, operation.getItemId());
+                        products.putIfAbsent(item.getProduct().getId(), item.getProduct());
+                        stockChanges.merge(item.getProduct().getId(), operation.getQuantity() - item.getQuantity(), Integer::sum);
+                        item.setQuantity(operation.getQuantity());
+                        item.calculateTotalPrice();
+                    }
+                    case REMOVE -> {
+                        CartItem item = findItem(cart, operation.getItemId());
+                        stockChanges.merge(item.getProduct().getId(), -item.getQuantity(), Integer::sum);
+                        cart.removeItem(item);
+                    }
+                }
+            }
+            
+            // Reserve or release stock once per product
+            stockChanges.forEach((productId, stockChange) -> {
+                if (stockChange > 0 && !inventoryService.reserve(productId, stockChange)) {
+                    throw new IllegalArgumentException("Not enough stock available for product: " + products.get(productId).getName());
+                } else if (stockChange < 0) {
+                    inventoryService.release(productId, -stockChange);
+                }
+            });
+            
+            // Update cart total amount once
+            updateCartTotal(cart);
+            extendReservation(cart);
             
-            if (bestDiscount != null) {
-                applyDiscountToItems(items, bestDiscount, totalQuantity);
+            return saveCart(cart, before);
+        });
+    }
+
+    @Override
+    public Cart applyDiscounts(Long cartId) {
+        return change(cartId, status -> {
+            Cart cart = cartChangeWriter.load(cartId);
+            Map<Long, CartLine> before = cartChangeWriter.capture(cart);
+            PricedCart pricedCart = cartPricer.price(cart, activeDiscountIndex.activeDiscounts());
+            
+            // Load every applied discount in one query
+            Set<Long> discountIds = pricedCart.lines().stream()
+                    .map(PricedLine::rule)
+                    .filter(Objects::nonNull)
+                    .map(DiscountRule::getDiscountId)
+                    .collect(Collectors.toSet());
+            Map<Long, Discount> discounts = discountIds.isEmpty() ? Map.of() : discountRepository.findAllById(discountIds).stream()
+                    .collect(Collectors.toMap(Discount::getId, discount -> discount));
+            
+            // Store the priced result on the items
+            for (PricedLine line : pricedCart.lines()) {
+                CartItem item = line.item();
+                item.setAppliedDiscount(line.rule() == null ? null : discounts.get(line.rule().getDiscountId()));
+                item.setDiscountAmount(line.discountAmount());
+                item.calculateTotalPrice();
             }
-        }
-        
-        // Update cart total amount
-        updateCartTotal(cart);
-        
-        return cartRepository.save(cart);
+            
+            // Update cart total amount
+            updateCartTotal(cart);
+            
+            return saveCart(cart, before);
+        });
     }
 
     @Override
-    public Map<String, Object> generateReceipt(Long cartId) {
-        Cart cart = getCartById(cartId);
-        
-        // Apply discounts
-        applyDiscounts(cartId);
-        
-        Map<String, Object> receipt = new HashMap<>();
-        receipt.put("cartId", cart.getId());
-        receipt.put("createdAt", cart.getCreatedAt());
-        receipt.put("updatedAt", cart.getUpdatedAt());
-        
-        List<Map<String, Object>> items = new ArrayList<>();
-        for (CartItem item : cart.getItems()) {
-            Map<String, Object> itemMap = new HashMap<>();
-            itemMap.put("productId", item.getProduct().getId());
-            itemMap.put("productName", item.getProduct().getName());
-            itemMap.put("quantity", item.getQuantity());
-            itemMap.put("unitPrice", item.getUnitPrice());
-            itemMap.put("totalPrice", item.getTotalPrice());
+    public Receipt generateReceipt(Long cartId) {
+        return read(cartId, status -> {
+            ActiveDiscounts activeDiscounts = activeDiscountIndex.activeDiscounts();
+            Long version = currentVersion(cartId);
             
-            if (item.getAppliedDiscount() != null) {
-                Map<String, Object> discountMap = new HashMap<>();
-                discountMap.put("discountId", item.getAppliedDiscount().getId());
-                discountMap.put("discountName", item.getAppliedDiscount().getName());
-                discountMap.put("discountType", item.getAppliedDiscount().getType());
-                discountMap.put("discountAmount", item.getDiscountAmount());
-                itemMap.put("appliedDiscount", discountMap);
+            // Unchanged cart priced against the same discounts
+            Receipt receipt = receiptCache.get(cartId, version, activeDiscounts.getGeneration());
+            if (receipt != null) {
+                return receipt;
             }
             
-            items.add(itemMap);
-        }
-        
-        receipt.put("items", items);
-        receipt.put("totalAmount", cart.getTotalAmount());
-        
-        return receipt;
+            Cart cart = findCart(cartId);
+            receipt = receiptAssembler.assemble(cart, cartPricer.price(cart, activeDiscounts));
+            receiptCache.put(cartId, cart.getVersion(), activeDiscounts.getGeneration(), receipt);
+            return receipt;
+        });
+    }
+
+    @Override
+    public String getReceiptETag(Long cartId) {
+        closeSession(cartId);
+        // A receipt changes with the cart and with the discounts in effect
+        return "\"" + cartId + "-" + currentVersion(cartId) + "-" + activeDiscountIndex.activeDiscounts().getGeneration() + "\"";
     }
     
     // Helper methods
     
+    // Changes of one cart run one at a time, each transaction commits before the next change starts
+    private <T> T change(Long cartId, TransactionCallback<T> change) {
+        return cartCommandExecutor.execute(cartId, () -> {
+            closeSession(cartId);
+            return transactionTemplate.execute(change);
+        });
+    }
+    
+    private <T> T read(Long cartId, TransactionCallback<T> read) {
+        closeSession(cartId);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        return readOnly.execute(read);
+    }
+    
+    private Cart findCart(Long id) {
+        return cartRepository.findWithItemsById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Cart not found with id: " + id));
+    }
+    
+    // Writes quantity changes still held in memory before the cart is read or changed otherwise. Called
+    // before any transaction is opened, so a flush never holds a second connection
+    private void closeSession(Long cartId) {
+        cartSessionStore.ifPresent(store -> store.close(cartId));
+    }
+    
+    private Cart saveCart(Cart cart, Map<Long, CartLine> before) {
+        cartChangeWriter.write(cart, before);
+        long version = cart.getVersion();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cartSnapshotCache.invalidate(cart.getId(), version);
+            }
+        });
+        return cart;
+    }
+    
+    private Long currentVersion(Long cartId) {
+        Long version = cartSnapshotCache.version(cartId);
+        if (version != null) {
+            return version;
+        }
+        return cartRepository.findVersionById(cartId)
+                .orElseThrow(() -> new EntityNotFoundException("Cart not found with id: " + cartId));
+    }
+    
+    private byte[] serialize(Cart cart) {
+        try {
+            return objectMapper.writeValueAsBytes(cart);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
     private void updateCartTotal(Cart cart) {
-        BigDecimal total = cart.getItems().stream()
-                .map(CartItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        cart.setTotalAmount(total);
+        cart.calculateTotalAmount();
         cart.setUpdatedAt(LocalDateTime.now());
     }
     
-    private Discount findBestDiscount(List<Discount> discounts, int quantity) {
-        return discounts.stream()
-                .filter(d -> d.getMinQuantity() == null || d.getMinQuantity() <= quantity)
-                .max(Comparator.comparing(d -> calculateDiscountValue(d, quantity)))
-                .orElse(null);
+    private void putItem(Cart cart, Product product, int quantity) {
+        CartItem item = cart.findItemByProduct(product.getId());
+        
+        if (item != null) {
+            // Update existing item quantity
+            item.setQuantity(item.getQuantity() + quantity);
+            item.setUnitPrice(product.getPrice());
+            item.calculateTotalPrice();
+        } else {
+            // Add new item to cart
+            CartItem newItem = new CartItem();
+            newItem.setCart(cart);
+            newItem.setProduct(product);
+            newItem.setQuantity(quantity);
+            newItem.setUnitPrice(product.getPrice());
+            newItem.calculateTotalPrice();
+            cart.addItem(newItem);
+        }
     }
     
-    private BigDecimal calculateDiscountValue(Discount discount, int quantity) {
-        BigDecimal value = BigDecimal.ZERO;
-        
-        switch (discount.getType()) {
-            case PERCENTAGE:
-                // Percentage discount
-                value = discount.getValue().divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                break;
-            case FIXED_AMOUNT:
-                // Fixed amount discount
-                value = discount.getValue();
-                break;
-            case BUY_X_GET_Y_FREE:
-                // Buy X get Y free
-                int freeItems = quantity / (discount.getMinQuantity() + 1);
-                value = BigDecimal.valueOf(freeItems);
-                break;
-            case SECOND_UNIT_PERCENTAGE:
-                // Second unit discount
-                if (quantity >= 2) {
-                    value = discount.getValue().divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                }
-                break;
+    private CartItem findItem(Cart cart, Long cartItemId) {
+        CartItem item = cart.findItem(cartItemId);
+        if (item == null) {
+            throw new EntityNotFoundException("Cart item not found with id: " + cartItemId);
         }
-        
-        return value;
+        return item;
     }
     
-    private void applyDiscountToItems(List<CartItem> items, Discount discount, int totalQuantity) {
-        switch (discount.getType()) {
-            case PERCENTAGE:
-                // Percentage discount
-                for (CartItem item : items) {
-                    BigDecimal discountRate = discount.getValue().divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                    BigDecimal originalTotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-                    BigDecimal discountAmount = originalTotal.multiply(discountRate);
-                    
-                    item.setAppliedDiscount(discount);
-                    item.setDiscountAmount(discountAmount);
-                    item.calculateTotalPrice();
-                }
-                break;
-                
-            case FIXED_AMOUNT:
-                // Fixed amount discount - proportionally distributed to each item
-                BigDecimal totalOriginalPrice = items.stream()
-                        .map(item -> item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                
-                for (CartItem item : items) {
-                    BigDecimal originalItemTotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-                    BigDecimal ratio = originalItemTotal.divide(totalOriginalPrice, 4, RoundingMode.HALF_UP);
-                    BigDecimal discountAmount = discount.getValue().multiply(ratio);
-                    
-                    item.setAppliedDiscount(discount);
-                    item.setDiscountAmount(discountAmount);
-                    item.calculateTotalPrice();
-                }
-                break;
-                
-            case BUY_X_GET_Y_FREE:
-                // Buy X get Y free
-                int minQuantity = discount.getMinQuantity();
-                int freeItems = totalQuantity / (minQuantity + 1);
-                
-                if (freeItems > 0) {
-                    // Distribute free items proportionally
-                    int remainingFreeItems = freeItems;
-                    
-                    // Sort by quantity, prioritize items with higher quantities for discounts
-                    List<CartItem> sortedItems = new ArrayList<>(items);
-                    sortedItems.sort(Comparator.comparing(CartItem::getQuantity).reversed());
-                    
-                    for (CartItem item : sortedItems) {
-                        if (remainingFreeItems <= 0) break;
-                        
-                        int freeForThisItem = Math.min(remainingFreeItems, item.getQuantity());
-                        BigDecimal discountAmount = item.getUnitPrice().multiply(BigDecimal.valueOf(freeForThisItem));
-                        
-                        item.setAppliedDiscount(discount);
-                        item.setDiscountAmount(discountAmount);
-                        item.calculateTotalPrice();
-                        
-                        remainingFreeItems -= freeForThisItem;
-                    }
-                }
-                break;
-                
-            case SECOND_UNIT_PERCENTAGE:
-                // Second unit discount
-                if (totalQuantity >= 2) {
-                    int discountedItems = totalQuantity / 2;
-                    BigDecimal discountRate = discount.getValue().divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-                    
-                    // Distribute discounted items proportionally
-                    int remainingDiscountedItems = discountedItems;
-                    
-                    // Sort by quantity, prioritize items with higher quantities for discounts
-                    List<CartItem> sortedItems = new ArrayList<>(items);
-                    sortedItems.sort(Comparator.comparing(CartItem::getQuantity).reversed());
-                    
-                    for (CartItem item : sortedItems) {
-                        if (remainingDiscountedItems <= 0) break;
-                        
-                        int discountedForThisItem = Math.min(remainingDiscountedItems, item.getQuantity() / 2);
-                        BigDecimal discountAmount = item.getUnitPrice()
-                                .multiply(BigDecimal.ONE.subtract(discountRate))
-                                .multiply(BigDecimal.valueOf(discountedForThisItem));
-                        
-                        item.setAppliedDiscount(discount);
-                        item.setDiscountAmount(discountAmount);
-                        item.calculateTotalPrice();
-                        
-                        remainingDiscountedItems -= discountedForThisItem;
-                    }
-                }
-                break;
+    private static void requirePositive(Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
         }
     }
-} 
\ No newline at end of file
+    
+    private void extendReservation(Cart cart) {
+        cart.setReservationExpiresAt(cart.getItems().isEmpty() ? null : LocalDateTime.now().plus(reservationTtl));
+    }
+}
\ No newline at end of file
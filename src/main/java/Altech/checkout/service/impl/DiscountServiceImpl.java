@@ -3,20 +3,33 @@ package Altech.checkout.service.impl;
 import Altech.checkout.model.Discount;
 import Altech.checkout.repository.DiscountRepository;
 import Altech.checkout.service.DiscountService;
+import Altech.checkout.service.discount.ActiveDiscountIndex;
+import Altech.checkout.service.discount.DiscountCompiler;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class DiscountServiceImpl implements DiscountService {
     private final DiscountRepository discountRepository;
+    private final ActiveDiscountIndex activeDiscountIndex;
+    private final DiscountCompiler discountCompiler;
 
     @Override
+    @Transactional
     public Discount createDiscount(Discount discount) {
-        return discountRepository.save(discount);
+        // Reject discounts that could never be applied before they reach the database
+        discountCompiler.compile(discount);
+        Discount saved = discountRepository.save(discount);
+        afterCommit(() -> activeDiscountIndex.upsert(saved));
+        return saved;
     }
 
     @Override
@@ -31,6 +44,7 @@ public class DiscountServiceImpl implements DiscountService {
     }
 
     @Override
+    @Transactional
     public Discount updateDiscount(Long id, Discount discountDetails) {
         Discount discount = getDiscountById(id);
         discount.setName(discountDetails.getName());
@@ -41,13 +55,37 @@ public class DiscountServiceImpl implements DiscountService {
         discount.setStartDate(discountDetails.getStartDate());
         discount.setEndDate(discountDetails.getEndDate());
         discount.setIsActive(discountDetails.getIsActive());
-        return discountRepository.save(discount);
+        replaceScope(discount.getProductIds(), discountDetails.getProductIds());
+        replaceScope(discount.getCategories(), discountDetails.getCategories());
+        discountCompiler.compile(discount);
+        Discount saved = discountRepository.save(discount);
+        afterCommit(() -> activeDiscountIndex.upsert(saved));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteDiscount(Long id) {
         Discount discount = getDiscountById(id);
         discount.setIsActive(false);
         discountRepository.save(discount);
+        afterCommit(() -> activeDiscountIndex.remove(id));
     }
-} 
\ No newline at end of file
+
+    // Carts are only ever priced against discounts that are in the database
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static <T> void replaceScope(Set<T> target, Set<T> source) {
+        target.clear();
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+}
\ No newline at end of file
@@ -1,164 +1,248 @@
 package Altech.checkout.service.impl;
 
 import Altech.checkout.service.HealthCheckService;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.sql.DataSource;
+import java.io.File;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Health Check Service Implementation
+ * <p>
+ * A scheduled task probes the database once per interval and publishes an immutable snapshot,
+ * every health request is answered from that snapshot. Table sizes come from the planner
+ * statistics in {@code pg_class} rather than {@code COUNT(*)}, so a refresh costs one catalog
+ * lookup however large the tables grow.
  */
 @Service
 public class HealthCheckServiceImpl implements HealthCheckService {
+    private static final List<String> TABLES = List.of("products", "carts", "cart_items", "discounts");
+    // reltuples is -1 for tables that have never been vacuumed or analyzed
+    private static final String TABLE_ESTIMATES = """
+            SELECT c.relname, c.reltuples::bigint
+            FROM pg_class c
+            WHERE c.oid IN (to_regclass('products'), to_regclass('carts'),
+                            to_regclass('cart_items'), to_regclass('discounts'))
+            """;
 
-    @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final long staleAfterMillis;
+
+    private volatile Snapshot snapshot;
+
+    public HealthCheckServiceImpl(DataSource dataSource,
+                                  @Value("${checkout.health.query-timeout:PT2S}") Duration queryTimeout,
+                                  @Value("${checkout.health.stale-after:PT30S}") Duration staleAfter) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setQueryTimeout(Math.toIntExact(Math.max(1, queryTimeout.toSeconds())));
+        this.staleAfterMillis = staleAfter.toMillis();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${checkout.health.refresh-interval-ms:5000}")
+    public void refresh() {
+        long started = System.nanoTime();
+        Map<String, Long> estimates = new HashMap<>();
+        String databaseError = null;
+        try {
+            jdbcTemplate.query(TABLE_ESTIMATES, rs -> {
+                estimates.put(rs.getString(1), rs.getLong(2));
+            });
+        } catch (DataAccessException e) {
+            databaseError = e.getMessage();
+        }
+        long latencyMillis = (System.nanoTime() - started) / 1_000_000;
+        boolean connected = databaseError == null;
+
+        Map<String, Object> database = connected
+                ? Map.of("status", "UP", "latencyMillis", latencyMillis, "details", "Database connection normal")
+                : Map.of("status", "DOWN", "details", "Unable to connect to database: " + databaseError);
+
+        Map<String, Object> tables = new HashMap<>();
+        boolean tablesHealthy = connected;
+        if (connected) {
+            for (String table : TABLES) {
+                Long estimate = estimates.get(table);
+                if (estimate == null) {
+                    tables.put(table + "_table", Map.of("status", "DOWN", "details", table + " table not found"));
+                    tablesHealthy = false;
+                } else {
+                    tables.put(table + "_table", Map.of(
+                        "status", "UP",
+                        "estimatedCount", Math.max(estimate, 0),
+                        "analyzed", estimate >= 0,
+                        "details", table + " table accessible"
+                    ));
+                }
+            }
+        }
+
+        snapshot = new Snapshot(System.currentTimeMillis(), connected, tablesHealthy, Map.copyOf(database),
+                Map.copyOf(tables), connectionPoolStatus(), systemInfo());
+    }
 
     @Override
     public Map<String, Object> performBasicHealthCheck() {
+        Snapshot current = snapshot;
         Map<String, Object> response = new HashMap<>();
         Map<String, Object> components = new HashMap<>();
-        boolean isSystemHealthy = true;
-        
-        // Check database connection
-        boolean isDatabaseConnected = isDatabaseConnected();
-        components.put("database", Map.of(
-            "status", isDatabaseConnected ? "UP" : "DOWN",
-            "details", isDatabaseConnected ? "Database connection normal" : "Unable to connect to database"
-        ));
-        isSystemHealthy &= isDatabaseConnected;
-        
-        // Check API service
+        boolean isSystemHealthy = current != null && current.connected();
+
+        components.put("database", current == null ? pending() : current.database());
         components.put("api", Map.of(
             "status", "UP",
             "details", "API service running normally"
         ));
-        
-        // Check application memory
+
         Runtime runtime = Runtime.getRuntime();
-        long freeMemory = runtime.freeMemory() / (1024 * 1024);
-        long totalMemory = runtime.totalMemory() / (1024 * 1024);
-        long maxMemory = runtime.maxMemory() / (1024 * 1024);
         components.put("memory", Map.of(
             "status", "UP",
-            "freeMemory", freeMemory + "MB",
-            "totalMemory", totalMemory + "MB",
-            "maxMemory", maxMemory + "MB",
+            "freeMemory", runtime.freeMemory() / (1024 * 1024) + "MB",
+            "totalMemory", runtime.totalMemory() / (1024 * 1024) + "MB",
+            "maxMemory", runtime.maxMemory() / (1024 * 1024) + "MB",
             "details", "Memory usage normal"
         ));
-        
+
         response.put("status", isSystemHealthy ? "UP" : "DOWN");
         response.put("is_healthy", isSystemHealthy);
         response.put("components", components);
         response.put("timestamp", System.currentTimeMillis());
-        
         return response;
     }
 
     @Override
     public Map<String, Object> performDetailedHealthCheck() {
+        Snapshot current = snapshot;
         Map<String, Object> response = new HashMap<>();
         Map<String, Object> components = new HashMap<>();
-        boolean isSystemHealthy = true;
-        
-        // Basic health status check
-        boolean isDatabaseConnected = isDatabaseConnected();
-        components.put("database", Map.of(
-            "status", isDatabaseConnected ? "UP" : "DOWN",
-            "details", isDatabaseConnected ? "Database connection normal" : "Unable to connect to database"
-        ));
-        isSystemHealthy &= isDatabaseConnected;
-        
-        // Check if key tables are accessible
-        if (isDatabaseConnected) {
-            // Check products table
-            Map<String, Object> productTableStatus = checkTableAccess("products");
-            components.put("products_table", productTableStatus);
-            isSystemHealthy &= "UP".equals(productTableStatus.get("status"));
-            
-            // Check carts table
-            Map<String, Object> cartTableStatus = checkTableAccess("carts");
-            components.put("carts_table", cartTableStatus);
-            isSystemHealthy &= "UP".equals(cartTableStatus.get("status"));
-            
-            // Check cart items table
-            Map<String, Object> cartItemsTableStatus = checkTableAccess("cart_items");
-            components.put("cart_items_table", cartItemsTableStatus);
-            isSystemHealthy &= "UP".equals(cartItemsTableStatus.get("status"));
-            
-            // Check discounts table
-            Map<String, Object> discountTableStatus = checkTableAccess("discounts");
-            components.put("discounts_table", discountTableStatus);
-            isSystemHealthy &= "UP".equals(discountTableStatus.get("status"));
-        }
-        
-        // System information
-        Map<String, Object> systemInfo = new HashMap<>();
-        Runtime runtime = Runtime.getRuntime();
-        systemInfo.put("processors", runtime.availableProcessors());
-        systemInfo.put("freeMemory", runtime.freeMemory() / (1024 * 1024) + "MB");
-        systemInfo.put("totalMemory", runtime.totalMemory() / (1024 * 1024) + "MB");
-        systemInfo.put("maxMemory", runtime.maxMemory() / (1024 * 1024) + "MB");
-        systemInfo.put("javaVersion", System.getProperty("java.version"));
-        systemInfo.put("osName", System.getProperty("os.name"));
-        systemInfo.put("osVersion", System.getProperty("os.version"));
-        
-        // Get disk space information
-        try {
-            java.io.File file = new java.io.File(".");
-            long totalSpace = file.getTotalSpace() / (1024 * 1024 * 1024);
-            long freeSpace = file.getFreeSpace() / (1024 * 1024 * 1024);
-            long usableSpace = file.getUsableSpace() / (1024 * 1024 * 1024);
-            
-            systemInfo.put("totalDiskSpace", totalSpace + "GB");
-            systemInfo.put("freeDiskSpace", freeSpace + "GB");
-            systemInfo.put("usableDiskSpace", usableSpace + "GB");
-        } catch (Exception e) {
-            systemInfo.put("diskSpaceError", e.getMessage());
+        boolean isSystemHealthy = current != null && current.connected() && current.tablesHealthy();
+
+        if (current == null) {
+            components.put("database", pending());
+        } else {
+            components.put("database", current.database());
+            components.putAll(current.tables());
+            components.put("connection_pool", current.connectionPool());
+            components.put("system", Map.of(
+                "status", "UP",
+                "info", current.systemInfo(),
+                "details", "System resources normal"
+            ));
+            response.put("checkedAt", current.checkedAt());
         }
-        
-        components.put("system", Map.of(
-            "status", "UP",
-            "info", systemInfo,
-            "details", "System resources normal"
-        ));
-        
+
         response.put("status", isSystemHealthy ? "UP" : "DOWN");
         response.put("is_healthy", isSystemHealthy);
         response.put("components", components);
         response.put("timestamp", System.currentTimeMillis());
-        
         return response;
     }
 
     @Override
     public boolean isDatabaseConnected() {
-        try {
-            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
-            return true;
-        } catch (DataAccessException e) {
-            return false;
-        }
+        Snapshot current = snapshot;
+        return current != null && current.connected();
     }
 
     @Override
-    public Map<String, Object> checkTableAccess(String tableName) {
+    public Map<String, Object> getLiveness() {
+        Snapshot current = snapshot;
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "UP");
+        response.put("snapshotAgeMillis", current == null ? -1 : System.currentTimeMillis() - current.checkedAt());
+        response.put("timestamp", System.currentTimeMillis());
+        return response;
+    }
+
+    @Override
+    public Map<String, Object> getReadiness() {
+        Snapshot current = snapshot;
+        Map<String, Object> response = new HashMap<>();
+        if (current == null) {
+            response.put("status", "DOWN");
+            response.put("database", pending());
+            response.put("timestamp", System.currentTimeMillis());
+            return response;
+        }
+
+        long ageMillis = System.currentTimeMillis() - current.checkedAt();
+        boolean fresh = ageMillis <= staleAfterMillis;
+        // A saturated pool is reported but keeps the instance ready, every replica shares the
+        // same database and taking one out of rotation only moves its load onto the others
+        response.put("status", current.connected() && fresh ? "UP" : "DOWN");
+        response.put("database", current.database());
+        response.put("connectionPool", current.connectionPool());
+        response.put("snapshotAgeMillis", ageMillis);
+        if (!fresh) {
+            response.put("details", "Health snapshot not refreshed for " + ageMillis + "ms");
+        }
+        response.put("timestamp", System.currentTimeMillis());
+        return response;
+    }
+
+    private Map<String, Object> connectionPoolStatus() {
+        HikariDataSource hikari;
         try {
-            Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + tableName, Integer.class);
-            return Map.of(
-                "status", "UP",
-                "count", count,
-                "details", tableName + " table accessible"
-            );
-        } catch (DataAccessException e) {
-            return Map.of(
-                "status", "DOWN",
-                "details", tableName + " table access failed: " + e.getMessage()
-            );
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            return Map.of("status", "UNKNOWN", "details", "Connection pool is not HikariCP");
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return Map.of("status", "UNKNOWN", "details", "Connection pool not started");
         }
+
+        int active = pool.getActiveConnections();
+        int awaiting = pool.getThreadsAwaitingConnection();
+        int max = hikari.getMaximumPoolSize();
+        boolean saturated = active >= max && awaiting > 0;
+        return Map.of(
+            "status", saturated ? "SATURATED" : "UP",
+            "active", active,
+            "idle", pool.getIdleConnections(),
+            "max", max,
+            "awaiting", awaiting,
+            "utilization", (max == 0 ? 0 : active * 100 / max) + "%"
+        );
+    }
+
+    private static Map<String, Object> systemInfo() {
+        Map<String, Object> systemInfo = new HashMap<>();
+        Runtime runtime = Runtime.getRuntime();
+        systemInfo.put("processors", runtime.availableProcessors());
+        systemInfo.put("freeMemory", runtime.freeMemory() / (1024 * 1024) + "MB");
+        systemInfo.put("totalMemory", runtime.totalMemory() / (1024 * 1024) + "MB");
+        systemInfo.put("maxMemory", runtime.maxMemory() / (1024 * 1024) + "MB");
+        systemInfo.put("javaVersion", System.getProperty("java.version"));
+        systemInfo.put("osName", System.getProperty("os.name"));
+        systemInfo.put("osVersion", System.getProperty("os.version"));
+
+        File file = new File(".");
+        systemInfo.put("totalDiskSpace", file.getTotalSpace() / (1024 * 1024 * 1024) + "GB");
+        systemInfo.put("freeDiskSpace", file.getFreeSpace() / (1024 * 1024 * 1024) + "GB");
+        systemInfo.put("usableDiskSpace", file.getUsableSpace() / (1024 * 1024 * 1024) + "GB");
+        return Map.copyOf(systemInfo);
+    }
+
+    private static Map<String, Object> pending() {
+        return Map.of("status", "UNKNOWN", "details", "First health check has not completed yet");
+    }
+
+    private record Snapshot(long checkedAt, boolean connected, boolean tablesHealthy, Map<String, Object> database,
+                            Map<String, Object> tables, Map<String, Object> connectionPool,
+                            Map<String, Object> systemInfo) {
     }
-} 
\ No newline at end of file
+}
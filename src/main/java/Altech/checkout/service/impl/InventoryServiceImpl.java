@@ -0,0 +1,53 @@
+package Altech.checkout.service.impl;
+
+import Altech.checkout.repository.ProductRepository;
+import Altech.checkout.service.InventoryService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reserves stock with a single conditional UPDATE so concurrent carts can never oversell a product.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "checkout.inventory.ledger.enabled", havingValue = "false")
+public class InventoryServiceImpl implements InventoryService {
+    private final ProductRepository productRepository;
+
+    @Override
+    @Transactional
+    public boolean reserve(Long productId, int quantity) {
+        requirePositive(quantity);
+        return productRepository.reserveStock(productId, quantity) == 1;
+    }
+
+    @Override
+    @Transactional
+    public void release(Long productId, int quantity) {
+        requirePositive(quantity);
+        if (productRepository.releaseStock(productId, quantity) == 0) {
+            throw new EntityNotFoundException("Product not found with id: " + productId);
+        }
+    }
+
+    @Override
+    public long available(Long productId) {
+        return productRepository.findById(productId)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId))
+                .getStock();
+    }
+
+    @Override
+    public void resetStock(Long productId) {
+        // products.stock is already the available stock
+    }
+
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package Altech.checkout.service.impl;
+
+import Altech.checkout.repository.InventoryJournalRepository;
+import Altech.checkout.service.InventoryService;
+import Altech.checkout.service.inventory.InventoryLedger;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Grants reservations from the in-memory {@link InventoryLedger} and records each one as a journal
+ * row in the caller's transaction, leaving the {@code products} row untouched until the next flush.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "checkout.inventory.ledger.enabled", havingValue = "true", matchIfMissing = true)
+public class LedgerInventoryServiceImpl implements InventoryService {
+    private final InventoryLedger inventoryLedger;
+    private final InventoryJournalRepository inventoryJournalRepository;
+
+    @Override
+    @Transactional
+    public boolean reserve(Long productId, int quantity) {
+        requirePositive(quantity);
+        long generation = inventoryLedger.tryAcquire(productId, quantity);
+        if (generation == InventoryLedger.NOT_ACQUIRED) {
+            return false;
+        }
+        // Hand the units back if the cart change does not commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    inventoryLedger.release(productId, quantity, generation);
+                }
+            }
+        });
+        inventoryLedger.recordAcquired(productId, quantity, generation);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void release(Long productId, int quantity) {
+        requirePositive(quantity);
+        // Only makes the units available again once the cart change is durable
+        inventoryLedger.recordReleased(productId, quantity);
+    }
+
+    @Override
+    public long available(Long productId) {
+        return inventoryLedger.available(productId);
+    }
+
+    @Override
+    @Transactional
+    public void resetStock(Long productId) {
+        // Pending deltas are superseded by the overwritten stock
+        inventoryJournalRepository.deleteByProductId(productId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                inventoryLedger.invalidate(productId);
+            }
+        });
+    }
+
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+    }
+}
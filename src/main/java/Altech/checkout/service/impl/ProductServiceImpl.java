@@ -1,18 +1,35 @@
 package Altech.checkout.service.impl;
 
+import Altech.checkout.cache.ProductCache;
+import Altech.checkout.dto.ProductPage;
 import Altech.checkout.model.Product;
 import Altech.checkout.repository.ProductRepository;
+import Altech.checkout.service.InventoryService;
 import Altech.checkout.service.ProductService;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final EntityManager entityManager;
+    private final ProductCache productCache;
 
     @Override
     public Product createProduct(Product product) {
@@ -21,30 +38,88 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
+        Product product = productCache.get(id);
+        if (product == null) {
+            // A copy, the loaded entity may be managed and must not pick up the stock below
+            product = productCache.put(findProduct(id));
+        }
+        // Stock comes from the inventory so cached details never report a stale level
+        product.setStock((int) Math.min(inventoryService.available(id), Integer.MAX_VALUE));
+        return product;
+    }
+
+    @Override
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        return ids.isEmpty() ? List.of() : productRepository.findAllById(ids);
     }
 
     @Override
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public ProductPage getProducts(Long after, int size, boolean includeInactive) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long afterId = after == null ? 0 : after;
+        List<Product> products = includeInactive
+                ? productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size))
+                : productRepository.findByIsActiveTrueAndIdGreaterThanOrderByIdAsc(afterId, Limit.of(size));
+        Long nextCursor = products.size() < size ? null : products.get(products.size() - 1).getId();
+        return new ProductPage(products, nextCursor);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public void forEachProduct(Consumer<Product> action) {
+        try (Stream<Product> products = productRepository.streamAllOrderById()) {
+            products.forEach(product -> {
+                action.accept(product);
+                // Keep the persistence context from growing with the catalog
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    @Override
+    @Transactional
     public Product updateProduct(Long id, Product productDetails) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
+        // Only changed columns are written, a rename never writes back the stock read above
+        if (productDetails.getStock() != null && !product.getStock().equals(productDetails.getStock())) {
+            // Pending journal rows go first, then the row is locked so no flush folds deltas into the
+            // stock between here and the commit
+            inventoryService.resetStock(id);
+            entityManager.lock(product, LockModeType.PESSIMISTIC_WRITE);
+            product.setStock(productDetails.getStock());
+        }
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
         product.setPrice(productDetails.getPrice());
-        product.setStock(productDetails.getStock());
+        product.setCategory(productDetails.getCategory());
         product.setIsActive(productDetails.getIsActive());
+        evictAfterCommit(id);
         return productRepository.save(product);
     }
 
     @Override
+    @Transactional
     public void deleteProduct(Long id) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
         product.setIsActive(false);
+        evictAfterCommit(id);
         productRepository.save(product);
     }
+
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
+    }
+
+    private void evictAfterCommit(Long id) {
+        // Evicting before commit would let a concurrent read cache the old row again
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productCache.evict(id);
+            }
+        });
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,255 @@
+package Altech.checkout.service.inventory;
+
+import Altech.checkout.dto.AvailableStock;
+import Altech.checkout.model.InventoryJournalEntry;
+import Altech.checkout.repository.InventoryJournalRepository;
+import Altech.checkout.repository.ProductRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory available stock per product, backed by {@code products.stock} plus the pending
+ * rows of {@code inventory_journal}.
+ * <p>
+ * Reservations are granted against striped counters. The journal rows written alongside each cart
+ * change are folded into {@code products.stock} on an interval, so a flash sale on one product no
+ * longer queues every cart change behind that product's row lock.
+ * <p>
+ * Every load of a counter gets a new generation and keeps the database snapshot it was read in.
+ * Once a journal row commits, its delta is applied to the counter only if that snapshot did not
+ * already count the row and the units were not taken from that same counter up front, so a counter
+ * loaded around a commit never counts a reservation or release twice or misses it.
+ */
+@Component
+@ConditionalOnProperty(name = "checkout.inventory.ledger.enabled", havingValue = "true", matchIfMissing = true)
+public class InventoryLedger {
+    /**
+     * Returned by {@link #tryAcquire} when not enough units are available.
+     */
+    public static final long NOT_ACQUIRED = -1;
+
+    private static final Object TRANSACTION_ID_KEY = new Object();
+
+    private final ProductRepository productRepository;
+    private final InventoryJournalRepository inventoryJournalRepository;
+    private final int stripes;
+
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+
+    public InventoryLedger(ProductRepository productRepository, InventoryJournalRepository inventoryJournalRepository) {
+        this.productRepository = productRepository;
+        this.inventoryJournalRepository = inventoryJournalRepository;
+        this.stripes = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Takes units from the in-memory counter only.
+     *
+     * @return the generation of the counter the units were taken from, or {@link #NOT_ACQUIRED}
+     */
+    public long tryAcquire(Long productId, int quantity) {
+        LoadedCounter counter = counter(productId);
+        return counter.stock.tryAcquire(quantity) ? counter.generation : NOT_ACQUIRED;
+    }
+
+    /**
+     * Gives back units taken with {@link #tryAcquire}. Dropped when the counter has been reloaded
+     * since, the units went away with the counter they were taken from.
+     */
+    public void release(Long productId, int quantity, long generation) {
+        slots.computeIfPresent(productId, (id, slot) -> {
+            if (slot.counter != null && slot.counter.generation == generation) {
+                slot.counter.stock.release(quantity);
+            }
+            return slot;
+        });
+    }
+
+    public long generation(Long productId) {
+        return counter(productId).generation;
+    }
+
+    public long available(Long productId) {
+        return counter(productId).stock.available();
+    }
+
+    /**
+     * Makes units taken with {@link #tryAcquire} durable by writing their journal row in the caller's
+     * transaction. The units stay taken if that transaction rolls back.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAcquired(Long productId, int quantity, long generation) {
+        record(productId, -quantity, generation);
+    }
+
+    /**
+     * Writes the journal row of released units in the caller's transaction. The units become
+     * available again once it commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReleased(Long productId, int quantity) {
+        record(productId, quantity, NOT_ACQUIRED);
+    }
+
+    /**
+     * Drops the counter of a product so the next access reloads it from the database.
+     */
+    public void invalidate(Long productId) {
+        slots.computeIfPresent(productId, (id, slot) -> {
+            slot.counter = null;
+            slot.pending.clear();
+            // A load already in flight may have read the state before the reset, it starts over
+            slot.resets++;
+            return slot;
+        });
+    }
+
+    /**
+     * Folds committed journal rows into {@code products.stock}. Runs at startup to reconcile
+     * deltas left behind by a crash, then on the configured interval.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${checkout.inventory.flush-interval-ms:1000}")
+    @Transactional
+    public void flush() {
+        inventoryJournalRepository.flushPendingDeltas();
+    }
+
+    private void record(Long productId, int delta, long takenFrom) {
+        InventoryJournalEntry entry = new InventoryJournalEntry();
+        entry.setProductId(productId);
+        entry.setDelta(delta);
+        inventoryJournalRepository.save(entry);
+
+        long transactionId = transactionId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                settle(productId, delta, takenFrom, transactionId);
+            }
+        });
+    }
+
+    private void settle(Long productId, int delta, long takenFrom, long transactionId) {
+        slots.computeIfPresent(productId, (id, slot) -> {
+            LoadedCounter counter = slot.counter;
+            if (counter != null) {
+                if (counter.generation != takenFrom && !counter.snapshot.sees(transactionId)) {
+                    counter.stock.adjust(delta);
+                }
+            } else if (slot.loaders > 0) {
+                // The load in flight may have read before this commit, it sorts that out once it has its snapshot
+                slot.pending.add(new Settlement(delta, transactionId));
+            }
+            // With no counter and no load the next load reads the committed row
+            return slot;
+        });
+    }
+
+    private long transactionId() {
+        Long cached = (Long) TransactionSynchronizationManager.getResource(TRANSACTION_ID_KEY);
+        if (cached != null) {
+            return cached;
+        }
+        long transactionId = inventoryJournalRepository.currentTransactionId();
+        TransactionSynchronizationManager.bindResource(TRANSACTION_ID_KEY, transactionId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_ID_KEY);
+            }
+        });
+        return transactionId;
+    }
+
+    private LoadedCounter counter(Long productId) {
+        Slot current = slots.get(productId);
+        LoadedCounter counter = current == null ? null : current.counter;
+        while (counter == null) {
+            counter = load(productId);
+        }
+        return counter;
+    }
+
+    // Null when the product was reset while loading
+    private LoadedCounter load(Long productId) {
+        long[] resets = new long[1];
+        LoadedCounter[] result = new LoadedCounter[1];
+        slots.compute(productId, (id, existing) -> {
+            Slot slot = existing != null ? existing : new Slot();
+            result[0] = slot.counter;
+            if (slot.counter == null) {
+                slot.loaders++;
+                resets[0] = slot.resets;
+            }
+            return slot;
+        });
+        if (result[0] != null) {
+            return result[0];
+        }
+
+        // Read outside the map lock, concurrent loaders of the same product keep the first counter in
+        AvailableStock stock;
+        try {
+            stock = productRepository.findAvailableStock(productId)
+                    .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId));
+        } catch (RuntimeException e) {
+            slots.computeIfPresent(productId, (id, slot) -> {
+                if (--slot.loaders == 0) {
+                    slot.pending.clear();
+                }
+                return slot;
+            });
+            throw e;
+        }
+
+        slots.compute(productId, (id, slot) -> {
+            slot.loaders--;
+            if (slot.counter == null && slot.resets == resets[0]) {
+                LoadedCounter loaded = new LoadedCounter(generations.incrementAndGet(),
+                        new StripedStockCounter(stripes, stock.getAvailable()), ReadSnapshot.parse(stock.getSnapshot()));
+                for (Settlement settlement : slot.pending) {
+                    if (!loaded.snapshot.sees(settlement.transactionId())) {
+                        loaded.stock.adjust(settlement.delta());
+                    }
+                }
+                slot.pending.clear();
+                slot.counter = loaded;
+            } else if (slot.loaders == 0 && slot.counter == null) {
+                slot.pending.clear();
+            }
+            result[0] = slot.counter;
+            return slot;
+        });
+        return result[0];
+    }
+
+    private record LoadedCounter(long generation, StripedStockCounter stock, ReadSnapshot snapshot) {
+    }
+
+    private record Settlement(int delta, long transactionId) {
+    }
+
+    // Only read and written inside the map's compute calls, apart from the volatile counter
+    private static final class Slot {
+        private volatile LoadedCounter counter;
+        private int loaders;
+        private long resets;
+        private final List<Settlement> pending = new ArrayList<>();
+    }
+}
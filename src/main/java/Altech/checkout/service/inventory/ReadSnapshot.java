@@ -0,0 +1,31 @@
+package Altech.checkout.service.inventory;
+
+import java.util.Arrays;
+
+/**
+ * Database snapshot a ledger counter was loaded in, parsed from the {@code pg_snapshot} text form
+ * {@code xmin:xmax:xip_list}.
+ */
+record ReadSnapshot(long xmin, long xmax, long[] inProgress) {
+
+    static ReadSnapshot parse(String text) {
+        String[] parts = text.split(":", 3);
+        long[] inProgress = parts[2].isEmpty()
+                ? new long[0]
+                : Arrays.stream(parts[2].split(",")).mapToLong(Long::parseLong).sorted().toArray();
+        return new ReadSnapshot(Long.parseLong(parts[0]), Long.parseLong(parts[1]), inProgress);
+    }
+
+    /**
+     * Whether the rows of the committed transaction {@code transactionId} were visible to this snapshot.
+     */
+    boolean sees(long transactionId) {
+        if (transactionId < xmin) {
+            return true;
+        }
+        if (transactionId >= xmax) {
+            return false;
+        }
+        return Arrays.binarySearch(inProgress, transactionId) < 0;
+    }
+}
@@ -0,0 +1,148 @@
+package Altech.checkout.service.inventory;
+
+import Altech.checkout.cache.CartSnapshotCache;
+import Altech.checkout.dto.ProductQuantity;
+import Altech.checkout.repository.CartRepository;
+import Altech.checkout.service.InventoryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gives back the stock held by carts whose reservation deadline has passed.
+ * <p>
+ * Expired carts are handled in batches: one statement locks a batch, one aggregates the quantities
+ * per product, one deletes the items, one clears the carts and one records the clearing in the cart
+ * event log, followed by a single release per product.
+ */
+@Component
+public class ReservationReaper {
+    private final CartRepository cartRepository;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final CartSnapshotCache cartSnapshotCache;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final LongAdder reclaimedUnits = new LongAdder();
+    private final LongAdder reapedCarts = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong lastBatchMillis = new AtomicLong();
+    private final AtomicLong maxBatchMillis = new AtomicLong();
+    private final AtomicLong totalBatchMillis = new AtomicLong();
+
+    public ReservationReaper(CartRepository cartRepository,
+                             InventoryService inventoryService,
+                             TransactionTemplate transactionTemplate,
+                             CartSnapshotCache cartSnapshotCache,
+                             @Value("${checkout.reservation.reaper.batch-size:500}") int batchSize,
+                             @Value("${checkout.reservation.reaper.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.cartRepository = cartRepository;
+        this.inventoryService = inventoryService;
+        this.transactionTemplate = transactionTemplate;
+        this.cartSnapshotCache = cartSnapshotCache;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${checkout.reservation.reaper.interval-ms:30000}")
+    public void reap() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer reaped = transactionTemplate.execute(status -> reapBatch(LocalDateTime.now()));
+            if (reaped == null || reaped < batchSize) {
+                break;
+            }
+        }
+    }
+
+    private int reapBatch(LocalDateTime now) {
+        long startedAt = System.nanoTime();
+        List<Long> cartIds = cartRepository.lockExpiredReservations(now, batchSize);
+        if (cartIds.isEmpty()) {
+            lastLagMillis.set(0);
+            return 0;
+        }
+
+        LocalDateTime earliestExpiry = cartRepository.findEarliestReservationExpiry(cartIds);
+        List<ProductQuantity> quantities = cartRepository.sumQuantitiesByProduct(cartIds);
+        cartRepository.deleteItems(cartIds);
+        cartRepository.clearReservations(cartIds, now);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cartIds.forEach(cartSnapshotCache::invalidate);
+            }
+        });
+        long units = 0;
+        for (ProductQuantity quantity : quantities) {
+            inventoryService.release(quantity.getProductId(), quantity.getQuantity().intValue());
+            units += quantity.getQuantity();
+        }
+
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+        reclaimedUnits.add(units);
+        reapedCarts.add(cartIds.size());
+        batches.increment();
+        lastLagMillis.set(earliestExpiry == null ? 0 : Duration.between(earliestExpiry, now).toMillis());
+        lastBatchMillis.set(elapsedMillis);
+        maxBatchMillis.accumulateAndGet(elapsedMillis, Math::max);
+        totalBatchMillis.addAndGet(elapsedMillis);
+        return cartIds.size();
+    }
+
+    public long getReclaimedUnits() {
+        return reclaimedUnits.sum();
+    }
+
+    public long getReapedCarts() {
+        return reapedCarts.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * How long the oldest reservation of the last batch had been expired when it was reaped.
+     */
+    public long getLastLagMillis() {
+        return lastLagMillis.get();
+    }
+
+    public long getLastBatchMillis() {
+        return lastBatchMillis.get();
+    }
+
+    public long getMaxBatchMillis() {
+        return maxBatchMillis.get();
+    }
+
+    public long getTotalBatchMillis() {
+        return totalBatchMillis.get();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("reclaimedUnits", getReclaimedUnits());
+        metrics.put("reapedCarts", getReapedCarts());
+        metrics.put("batches", getBatches());
+        metrics.put("lastLagMillis", getLastLagMillis());
+        metrics.put("lastBatchMillis", getLastBatchMillis());
+        metrics.put("maxBatchMillis", getMaxBatchMillis());
+        long batchCount = getBatches();
+        metrics.put("averageBatchMillis", batchCount == 0 ? 0 : getTotalBatchMillis() / batchCount);
+        return metrics;
+    }
+}
@@ -0,0 +1,97 @@
+package Altech.checkout.service.inventory;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Available units of one product spread over several cache-line padded cells.
+ * <p>
+ * Threads start at different cells and take units with a single CAS, so reservations of a hot
+ * product do not all contend on the same memory location. Only when no single cell holds enough
+ * units does a reservation gather units from every cell under a lock.
+ */
+final class StripedStockCounter {
+    // 16 ints = 64 bytes, keeps every cell on its own cache line
+    private static final int PADDING = 16;
+
+    private final int stripes;
+    private final AtomicIntegerArray cells;
+
+    StripedStockCounter(int stripes, long available) {
+        this.stripes = stripes;
+        this.cells = new AtomicIntegerArray(stripes * PADDING);
+        long share = Math.max(available, 0) / stripes;
+        long remainder = Math.max(available, 0) % stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, (int) (share + (i < remainder ? 1 : 0)));
+        }
+    }
+
+    boolean tryAcquire(int quantity) {
+        int home = home();
+        for (int i = 0; i < stripes; i++) {
+            int index = ((home + i) % stripes) * PADDING;
+            int current;
+            while ((current = cells.get(index)) >= quantity) {
+                if (cells.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        return gather(quantity, home);
+    }
+
+    void release(int quantity) {
+        adjust(quantity);
+    }
+
+    /**
+     * Adds units, or takes them even when fewer are left when {@code delta} is negative. A shortfall
+     * is carried as a negative cell, so {@link #available()} stays exact.
+     */
+    void adjust(int delta) {
+        if (delta >= 0) {
+            cells.addAndGet(home() * PADDING, delta);
+        } else if (!tryAcquire(-delta)) {
+            drain(-delta);
+        }
+    }
+
+    long available() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    private synchronized boolean gather(int quantity, int home) {
+        int collected = 0;
+        for (int i = 0; i < stripes && collected < quantity; i++) {
+            int index = i * PADDING;
+            int needed = quantity - collected;
+            int previous = cells.getAndUpdate(index, current -> current - Math.min(current, needed));
+            collected += Math.min(previous, needed);
+        }
+        if (collected < quantity) {
+            // Not enough units in total, put back what was taken
+            cells.addAndGet(home * PADDING, collected);
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized void drain(int quantity) {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+        cells.addAndGet(home() * PADDING, (int) (total - quantity));
+    }
+
+    private int home() {
+        // Thread ids are handed out in sequence, and for virtual threads in uneven runs, so they are
+        // scrambled before picking a cell to keep the homes spread over every stripe
+        long mixed = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(mixed ^ (mixed >>> 32), (long) stripes);
+    }
+}
@@ -0,0 +1,95 @@
+package Altech.checkout.service.pricing;
+
+import Altech.checkout.model.Cart;
+import Altech.checkout.model.CartItem;
+import Altech.checkout.model.Product;
+import Altech.checkout.money.Cents;
+import Altech.checkout.service.discount.ActiveDiscounts;
+import Altech.checkout.service.discount.DiscountRule;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Prices a cart against the active discounts without modifying the cart or its items.
+ * <p>
+ * All arithmetic is done in cents. Every line discount is rounded half up to the cent on its own,
+ * and line and cart totals are exact sums of the rounded amounts.
+ */
+@Component
+public class CartPricer {
+
+    public PricedCart price(Cart cart, ActiveDiscounts activeDiscounts) {
+        List<CartItem> cartItems = cart.getItems();
+        long[] unitPrices = new long[cartItems.size()];
+        int[] quantities = new int[cartItems.size()];
+
+        // Group item positions by product
+        Map<Long, List<Integer>> positionsByProduct = new LinkedHashMap<>();
+        for (int i = 0; i < cartItems.size(); i++) {
+            CartItem item = cartItems.get(i);
+            unitPrices[i] = Cents.of(item.getUnitPrice());
+            quantities[i] = item.getQuantity();
+            positionsByProduct.computeIfAbsent(item.getProduct().getId(), key -> new ArrayList<>()).add(i);
+        }
+
+        DiscountRule[] rules = new DiscountRule[cartItems.size()];
+        long[] discounts = new long[cartItems.size()];
+        int rulesEvaluated = 0;
+        for (List<Integer> positions : positionsByProduct.values()) {
+            long[] groupUnitPrices = new long[positions.size()];
+            int[] groupQuantities = new int[positions.size()];
+            int totalQuantity = 0;
+            for (int i = 0; i < groupUnitPrices.length; i++) {
+                groupUnitPrices[i] = unitPrices[positions.get(i)];
+                groupQuantities[i] = quantities[positions.get(i)];
+                totalQuantity += groupQuantities[i];
+            }
+
+            // Apply the discount that saves the most money on this product
+            Product product = cartItems.get(positions.get(0)).getProduct();
+            List<DiscountRule> candidates = activeDiscounts.candidates(product.getId(), product.getCategory(), totalQuantity);
+            rulesEvaluated += candidates.size();
+            DiscountRule bestRule = null;
+            long[] bestAmounts = null;
+            long bestSavings = 0;
+            for (DiscountRule rule : candidates) {
+                long[] amounts = rule.allocate(groupUnitPrices, groupQuantities, totalQuantity);
+                long savings = sum(amounts);
+                if (savings > bestSavings) {
+                    bestRule = rule;
+                    bestAmounts = amounts;
+                    bestSavings = savings;
+                }
+            }
+            if (bestRule == null) {
+                continue;
+            }
+            for (int i = 0; i < bestAmounts.length; i++) {
+                if (bestAmounts[i] != DiscountRule.UNTOUCHED) {
+                    rules[positions.get(i)] = bestRule;
+                    discounts[positions.get(i)] = bestAmounts[i];
+                }
+            }
+        }
+
+        List<PricedLine> lines = new ArrayList<>(cartItems.size());
+        long totalCents = 0;
+        for (int i = 0; i < cartItems.size(); i++) {
+            long totalPrice = Cents.times(unitPrices[i], quantities[i]) - discounts[i];
+            lines.add(new PricedLine(cartItems.get(i), rules[i], discounts[i], totalPrice));
+            totalCents += totalPrice;
+        }
+        return new PricedCart(lines, totalCents, rulesEvaluated);
+    }
+
+    private static long sum(long[] amounts) {
+        long total = 0;
+        for (long amount : amounts) {
+            if (amount != DiscountRule.UNTOUCHED) {
+                total += amount;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,18 @@
+package Altech.checkout.service.pricing;
+
+import Altech.checkout.money.Cents;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Result of pricing a cart in memory, lines are in the order of the cart items.
+ * The total is the sum of the rounded line totals, {@code rulesEvaluated} counts the candidate
+ * rules that were tried across all product groups.
+ */
+public record PricedCart(List<PricedLine> lines, long totalCents, int rulesEvaluated) {
+
+    public BigDecimal totalAmount() {
+        return Cents.toBigDecimal(totalCents);
+    }
+}
@@ -0,0 +1,21 @@
+package Altech.checkout.service.pricing;
+
+import Altech.checkout.model.CartItem;
+import Altech.checkout.money.Cents;
+import Altech.checkout.service.discount.DiscountRule;
+
+import java.math.BigDecimal;
+
+/**
+ * Price of one cart item in cents, {@code rule} is {@code null} when no discount applies.
+ */
+public record PricedLine(CartItem item, DiscountRule rule, long discountCents, long totalCents) {
+
+    public BigDecimal discountAmount() {
+        return Cents.toBigDecimal(discountCents);
+    }
+
+    public BigDecimal totalPrice() {
+        return Cents.toBigDecimal(totalCents);
+    }
+}
@@ -0,0 +1,39 @@
+package Altech.checkout.service.pricing;
+
+import Altech.checkout.dto.Receipt;
+import Altech.checkout.model.Cart;
+import Altech.checkout.model.CartItem;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a priced cart into the receipt returned to customers.
+ */
+@Component
+public class ReceiptAssembler {
+
+    public Receipt assemble(Cart cart, PricedCart pricedCart) {
+        List<Receipt.Item> items = new ArrayList<>(pricedCart.lines().size());
+        for (PricedLine line : pricedCart.lines()) {
+            CartItem item = line.item();
+            Receipt.AppliedDiscount appliedDiscount = null;
+            if (line.rule() != null) {
+                appliedDiscount = new Receipt.AppliedDiscount(
+                        line.rule().getDiscountId(),
+                        line.rule().getName(),
+                        line.rule().getType(),
+                        line.discountAmount());
+            }
+            items.add(new Receipt.Item(
+                    item.getProduct().getId(),
+                    item.getProduct().getName(),
+                    item.getQuantity(),
+                    item.getUnitPrice(),
+                    line.totalPrice(),
+                    appliedDiscount));
+        }
+        return new Receipt(cart.getId(), cart.getCreatedAt(), cart.getUpdatedAt(), items, pricedCart.totalAmount());
+    }
+}
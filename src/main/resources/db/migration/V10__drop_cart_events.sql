@@ -0,0 +1,3 @@
+-- cart_items is the only record of cart lines again, changes are written to it as diffs
+DROP TABLE cart_events;
+DROP TABLE cart_snapshots;
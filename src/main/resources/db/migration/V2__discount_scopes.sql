@@ -0,0 +1,19 @@
+ALTER TABLE products ADD COLUMN category VARCHAR(100);
+
+CREATE INDEX idx_products_category ON products(category);
+
+-- A discount without rows in either table applies to every product
+CREATE TABLE discount_products (
+    discount_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    PRIMARY KEY (discount_id, product_id),
+    CONSTRAINT fk_discount_products_discount FOREIGN KEY (discount_id) REFERENCES discounts(id),
+    CONSTRAINT fk_discount_products_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+CREATE TABLE discount_categories (
+    discount_id BIGINT NOT NULL,
+    category VARCHAR(100) NOT NULL,
+    PRIMARY KEY (discount_id, category),
+    CONSTRAINT fk_discount_categories_discount FOREIGN KEY (discount_id) REFERENCES discounts(id)
+);
@@ -0,0 +1,2 @@
+-- Incremented by Hibernate on every cart update, used for optimistic locking and receipt caching
+ALTER TABLE carts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
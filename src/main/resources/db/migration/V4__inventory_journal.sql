@@ -0,0 +1,12 @@
+-- Stock changes granted in memory by the inventory ledger, folded into products.stock in batches.
+-- Rows are written in the same transaction as the cart change, so products.stock plus the pending
+-- deltas is always the available stock, even after a crash.
+CREATE TABLE inventory_journal (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    delta INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_inventory_journal_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+CREATE INDEX idx_inventory_journal_product ON inventory_journal(product_id);
@@ -0,0 +1,5 @@
+-- Deadline after which the stock held by a cart's items is given back by the reservation reaper
+ALTER TABLE carts ADD COLUMN reservation_expires_at TIMESTAMP;
+
+CREATE INDEX idx_carts_reservation_expires_at ON carts(reservation_expires_at)
+    WHERE reservation_expires_at IS NOT NULL;
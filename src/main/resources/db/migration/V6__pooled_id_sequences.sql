@@ -0,0 +1,8 @@
+-- Hibernate now takes ids from these sequences in blocks of 50 (pooled optimizer) instead of
+-- reading back an IDENTITY value after every row, which lets it batch inserts.
+-- Values handed out by the column defaults stay unique because every nextval call reserves a whole block.
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+ALTER SEQUENCE discounts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE carts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE cart_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE inventory_journal_id_seq INCREMENT BY 50;
@@ -0,0 +1,5 @@
+-- Item lookups by cart, and the "carts containing a product" filter of the admin cart search
+CREATE INDEX idx_cart_items_cart ON cart_items(cart_id);
+CREATE INDEX idx_cart_items_product_cart ON cart_items(product_id, cart_id);
+
+CREATE INDEX idx_carts_updated_at ON carts(updated_at);
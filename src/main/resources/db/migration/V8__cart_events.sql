@@ -0,0 +1,44 @@
+-- Append-only record of cart line changes. Every change writes the full state of the lines it touched,
+-- tagged with the cart version it produced, so folding the events after a snapshot in
+-- (cart_version, position) order gives the current lines of the cart.
+CREATE SEQUENCE cart_events_id_seq INCREMENT BY 50;
+
+CREATE TABLE cart_events (
+    id BIGINT PRIMARY KEY DEFAULT nextval('cart_events_id_seq'),
+    cart_id BIGINT NOT NULL,
+    cart_version BIGINT NOT NULL,
+    position INTEGER NOT NULL,
+    type VARCHAR(32) NOT NULL,
+    product_id BIGINT,
+    quantity INTEGER,
+    unit_price DECIMAL(10,2),
+    discount_id BIGINT,
+    discount_amount DECIMAL(10,2),
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_cart_events_cart FOREIGN KEY (cart_id) REFERENCES carts(id) ON DELETE CASCADE,
+    CONSTRAINT uq_cart_events_version_position UNIQUE (cart_id, cart_version, position)
+);
+
+ALTER SEQUENCE cart_events_id_seq OWNED BY cart_events.id;
+
+-- Lines of a cart as of cart_version, events up to that version are removed once it is written
+CREATE TABLE cart_snapshots (
+    cart_id BIGINT PRIMARY KEY,
+    cart_version BIGINT NOT NULL,
+    lines JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_cart_snapshots_cart FOREIGN KEY (cart_id) REFERENCES carts(id) ON DELETE CASCADE
+);
+
+-- Existing carts start from a snapshot of their current lines
+INSERT INTO cart_snapshots (cart_id, cart_version, lines, created_at)
+SELECT c.id, c.version,
+       COALESCE((SELECT jsonb_agg(jsonb_build_object(
+                        'productId', i.product_id,
+                        'quantity', i.quantity,
+                        'unitPrice', i.unit_price,
+                        'discountId', i.discount_id,
+                        'discountAmount', i.discount_amount) ORDER BY i.id)
+                 FROM cart_items i WHERE i.cart_id = c.id), '[]'::jsonb),
+       now()
+FROM carts c;
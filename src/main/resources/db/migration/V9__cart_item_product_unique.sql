@@ -0,0 +1,47 @@
+-- Carts holding more than one line of the same product, merged into their oldest line below
+CREATE TEMPORARY TABLE merged_cart_items ON COMMIT DROP AS
+SELECT MIN(id) AS keep_id, cart_id, product_id, SUM(quantity) AS quantity
+FROM cart_items
+GROUP BY cart_id, product_id
+HAVING COUNT(*) > 1;
+
+-- The reserved units move to the kept line, its discount is priced again on the next apply
+UPDATE cart_items i
+SET quantity = m.quantity,
+    total_price = i.unit_price * m.quantity,
+    discount_id = NULL,
+    discount_amount = NULL
+FROM merged_cart_items m
+WHERE i.id = m.keep_id;
+
+DELETE FROM cart_items i
+USING merged_cart_items m
+WHERE i.cart_id = m.cart_id AND i.product_id = m.product_id AND i.id <> m.keep_id;
+
+UPDATE carts c
+SET total_amount = (SELECT COALESCE(SUM(i.total_price), 0) FROM cart_items i WHERE i.cart_id = c.id),
+    version = c.version + 1
+WHERE c.id IN (SELECT DISTINCT cart_id FROM merged_cart_items);
+
+-- Merged carts restart their event history from a snapshot of the merged lines
+DELETE FROM cart_events
+WHERE cart_id IN (SELECT DISTINCT cart_id FROM merged_cart_items);
+
+INSERT INTO cart_snapshots (cart_id, cart_version, lines, created_at)
+SELECT c.id, c.version,
+       COALESCE((SELECT jsonb_agg(jsonb_build_object(
+                        'productId', i.product_id,
+                        'quantity', i.quantity,
+                        'unitPrice', i.unit_price,
+                        'discountId', i.discount_id,
+                        'discountAmount', i.discount_amount) ORDER BY i.id)
+                 FROM cart_items i WHERE i.cart_id = c.id), '[]'::jsonb),
+       now()
+FROM carts c
+WHERE c.id IN (SELECT DISTINCT cart_id FROM merged_cart_items)
+ON CONFLICT (cart_id) DO UPDATE
+SET cart_version = EXCLUDED.cart_version, lines = EXCLUDED.lines, created_at = EXCLUDED.created_at;
+
+-- One line per product in a cart, the constraint index also serves item lookups by cart
+ALTER TABLE cart_items ADD CONSTRAINT uq_cart_items_cart_product UNIQUE (cart_id, product_id);
+DROP INDEX idx_cart_items_cart;
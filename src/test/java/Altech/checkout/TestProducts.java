@@ -0,0 +1,27 @@
+package Altech.checkout;
+
+import Altech.checkout.model.Product;
+import Altech.checkout.service.ProductService;
+
+import java.math.BigDecimal;
+
+/**
+ * Products created through {@link ProductService} for tests that need stock to reserve.
+ */
+public final class TestProducts {
+
+	private TestProducts() {
+	}
+
+	/**
+	 * Creates an active product and returns its id.
+	 */
+	public static Long create(ProductService productService, String name, BigDecimal price, int stock) {
+		Product product = new Product();
+		product.setName(name);
+		product.setDescription("Test product");
+		product.setPrice(price);
+		product.setStock(stock);
+		return productService.createProduct(product).getId();
+	}
+}
@@ -0,0 +1,87 @@
+package Altech.checkout.benchmark;
+
+import Altech.checkout.TestProducts;
+import Altech.checkout.dto.CartItemOperation;
+import Altech.checkout.service.CartService;
+import Altech.checkout.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds carts of {@value #LINES} lines through the batch item endpoint and reports the JDBC
+ * statements and wall time per cart. Subclasses run it with pooled sequence ids and JDBC batching,
+ * and with the IDENTITY ids and unbatched inserts they replaced.
+ * <p>
+ * Run with {@code ./gradlew benchmarkTest} against the compose database.
+ */
+@Tag("benchmark")
+abstract class AbstractCartBulkBuildBenchmark {
+
+	static final String STATISTICS = "spring.jpa.properties.hibernate.generate_statistics=true";
+
+	private static final int LINES = 30;
+	private static final int WARMUP_CARTS = 20;
+	private static final int MEASURED_CARTS = 100;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	abstract String label();
+
+	@Test
+	void buildCarts() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		List<CartItemOperation> operations = seedOperations();
+
+		for (int i = 0; i < WARMUP_CARTS; i++) {
+			buildCart(operations);
+		}
+
+		statistics.clear();
+		long startedAt = System.nanoTime();
+		for (int i = 0; i < MEASURED_CARTS; i++) {
+			buildCart(operations);
+		}
+		long elapsedNanos = System.nanoTime() - startedAt;
+
+		System.out.printf("[%s] %d carts x %d lines: %.1f statements/cart, %.2f ms/cart%n",
+				label(),
+				MEASURED_CARTS,
+				LINES,
+				(double) statistics.getPrepareStatementCount() / MEASURED_CARTS,
+				elapsedNanos / 1_000_000.0 / MEASURED_CARTS);
+	}
+
+	private void buildCart(List<CartItemOperation> operations) {
+		Long cartId = cartService.createCart().getId();
+		cartService.applyItemOperations(cartId, operations);
+	}
+
+	private List<CartItemOperation> seedOperations() {
+		List<CartItemOperation> operations = new ArrayList<>();
+		for (int i = 0; i < LINES; i++) {
+			CartItemOperation operation = new CartItemOperation();
+			operation.setType(CartItemOperation.Type.ADD);
+			operation.setProductId(TestProducts.create(productService, "Benchmark product " + i,
+					BigDecimal.valueOf(5 + i), 1_000_000));
+			operation.setQuantity(1);
+			operations.add(operation);
+		}
+		return operations;
+	}
+}
@@ -0,0 +1,12 @@
+package Altech.checkout.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = AbstractCartBulkBuildBenchmark.STATISTICS)
+class BatchedCartBulkBuildBenchmarkTests extends AbstractCartBulkBuildBenchmark {
+
+	@Override
+	String label() {
+		return "batched";
+	}
+}
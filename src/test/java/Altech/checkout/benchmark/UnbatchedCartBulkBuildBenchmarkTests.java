@@ -0,0 +1,20 @@
+package Altech.checkout.benchmark;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+// Baseline as before pooled sequences: IDENTITY ids, so every row is inserted on persist and its key
+// read back, and no Hibernate batching. The driver's batch rewrite has nothing left to rewrite
+@SpringBootTest(properties = {
+		AbstractCartBulkBuildBenchmark.STATISTICS,
+		"spring.jpa.mapping-resources=META-INF/identity-ids-orm.xml",
+		"spring.jpa.properties.hibernate.jdbc.batch_size=0",
+		"spring.jpa.properties.hibernate.order_inserts=false",
+		"spring.jpa.properties.hibernate.order_updates=false"
+})
+class UnbatchedCartBulkBuildBenchmarkTests extends AbstractCartBulkBuildBenchmark {
+
+	@Override
+	String label() {
+		return "unbatched";
+	}
+}
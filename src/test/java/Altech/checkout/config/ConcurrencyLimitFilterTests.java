@@ -0,0 +1,39 @@
+package Altech.checkout.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConcurrencyLimitFilterTests {
+
+	@Test
+	void probesPassWhileEveryPermitIsTaken() throws Exception {
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ZERO);
+		MockHttpServletResponse liveness = new MockHttpServletResponse();
+		MockHttpServletResponse readiness = new MockHttpServletResponse();
+		MockHttpServletResponse cart = new MockHttpServletResponse();
+
+		// The only permit is held by the outer request while the others arrive
+		filter.doFilter(request("/api/customer/products"), new MockHttpServletResponse(), (request, response) -> {
+			filter.doFilter(request("/api/actuator/health/liveness"), liveness, new MockFilterChain());
+			filter.doFilter(request("/api/test/health/ready"), readiness, new MockFilterChain());
+			filter.doFilter(request("/api/customer/cart/1"), cart, new MockFilterChain());
+		});
+
+		assertEquals(200, liveness.getStatus());
+		assertEquals(200, readiness.getStatus());
+		assertEquals(503, cart.getStatus());
+		assertEquals(1, filter.getRejectedRequests());
+	}
+
+	private static MockHttpServletRequest request(String uri) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		request.setContextPath("/api");
+		return request;
+	}
+}
@@ -0,0 +1,46 @@
+package Altech.checkout.money;
+
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.LongRange;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CentsPropertyTests {
+
+	@Property
+	void mulDivRoundsLikeBigDecimalHalfUp(@ForAll long a,
+										  @ForAll @LongRange(min = -1_000_000, max = 1_000_000) long b,
+										  @ForAll @LongRange(min = 1, max = 1_000_000) long divisor) {
+		BigDecimal expected = BigDecimal.valueOf(a)
+				.multiply(BigDecimal.valueOf(b))
+				.divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP);
+		if (expected.toBigInteger().bitLength() > 63) {
+			return;
+		}
+		assertEquals(expected.longValueExact(), Cents.mulDiv(a, b, divisor));
+	}
+
+	@Property
+	void divideHalfUpRoundsLikeBigDecimalHalfUp(@ForAll long dividend,
+												@ForAll @LongRange(min = 1, max = Long.MAX_VALUE) long divisor) {
+		BigDecimal expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP);
+		assertEquals(expected.longValueExact(), Cents.divideHalfUp(dividend, divisor));
+	}
+
+	@Property
+	void convertsToAndFromBigDecimal(@ForAll @LongRange(min = -9_999_999_999L, max = 9_999_999_999L) long cents) {
+		BigDecimal amount = Cents.toBigDecimal(cents);
+		assertEquals(2, amount.scale());
+		assertEquals(cents, Cents.of(amount));
+	}
+
+	@Property
+	void roundsExtraDecimalsHalfUp(@ForAll @LongRange(min = -1_000_000_000, max = 1_000_000_000) long tenthsOfCents) {
+		BigDecimal amount = BigDecimal.valueOf(tenthsOfCents, 3);
+		assertEquals(amount.setScale(2, RoundingMode.HALF_UP), Cents.toBigDecimal(Cents.of(amount)));
+	}
+}
@@ -0,0 +1,60 @@
+package Altech.checkout.service;
+
+import Altech.checkout.TestProducts;
+import Altech.checkout.model.Cart;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class CartConcurrentEditTests {
+
+	private static final int STOCK = 100;
+	private static final int TABS = 8;
+	private static final int ADDS_PER_TAB = 5;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Test
+	void concurrentAddsToTheSameCartAreAllKept() throws Exception {
+		Long productId = TestProducts.create(productService, "Shared cart product", BigDecimal.TEN, STOCK);
+		Long cartId = cartService.createCart().getId();
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(TABS);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int tab = 0; tab < TABS; tab++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < ADDS_PER_TAB; i++) {
+					cartService.addItemToCart(cartId, productId, 1);
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		Cart cart = cartService.getCartById(cartId);
+		assertEquals(1, cart.getItems().size());
+		assertEquals(TABS * ADDS_PER_TAB, cart.getItems().get(0).getQuantity());
+		assertEquals(STOCK - TABS * ADDS_PER_TAB, inventoryService.available(productId));
+	}
+}
@@ -0,0 +1,117 @@
+package Altech.checkout.service;
+
+import Altech.checkout.TestProducts;
+import Altech.checkout.model.Cart;
+import Altech.checkout.model.Discount;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CartServiceQueryCountTests {
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private DiscountService discountService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+
+		Discount discount = new Discount();
+		discount.setName("Query count test discount");
+		discount.setDescription("10% off");
+		discount.setType(Discount.DiscountType.PERCENTAGE);
+		discount.setValue(BigDecimal.TEN);
+		discountService.createDiscount(discount);
+	}
+
+	@Test
+	void getCartByIdLoadsWholeCartInOneQuery() {
+		Long cartId = buildCart(20);
+
+		statistics.clear();
+		Cart cart = cartService.getCartById(cartId);
+		cart.getItems().forEach(item -> item.getProduct().getName());
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertNoLazyLoads();
+	}
+
+	@Test
+	void applyDiscountsDoesNotLoadItemsOneByOne() {
+		long smallCartSelects = selectsForApplyDiscounts(buildCart(5));
+		long largeCartSelects = selectsForApplyDiscounts(buildCart(20));
+
+		assertEquals(smallCartSelects, largeCartSelects);
+	}
+
+	@Test
+	void generateReceiptDoesNotLoadItemsOneByOne() {
+		Long smallCartId = buildCart(5);
+		Long largeCartId = buildCart(20);
+
+		statistics.clear();
+		cartService.generateReceipt(smallCartId);
+		assertNoLazyLoads();
+		long smallCartQueries = statistics.getQueryExecutionCount();
+
+		statistics.clear();
+		cartService.generateReceipt(largeCartId);
+		assertNoLazyLoads();
+		assertEquals(smallCartQueries, statistics.getQueryExecutionCount());
+	}
+
+	@Test
+	void addingAProductAlreadyInTheCartMergesIntoItsLine() {
+		Long cartId = buildCart(20);
+		Long productId = cartService.getCartById(cartId).getItems().get(10).getProduct().getId();
+
+		statistics.clear();
+		Cart cart = cartService.addItemToCart(cartId, productId, 3);
+		assertNoLazyLoads();
+
+		assertEquals(20, cart.getItems().size());
+		assertEquals(5, cart.findItemByProduct(productId).getQuantity());
+	}
+
+	private long selectsForApplyDiscounts(Long cartId) {
+		statistics.clear();
+		cartService.applyDiscounts(cartId);
+		assertNoLazyLoads();
+		return statistics.getQueryExecutionCount();
+	}
+
+	private void assertNoLazyLoads() {
+		assertEquals(0, statistics.getEntityFetchCount(), "lazy entity fetches");
+		assertEquals(0, statistics.getCollectionFetchCount(), "lazy collection fetches");
+	}
+
+	private Long buildCart(int lines) {
+		Long cartId = cartService.createCart().getId();
+		for (int i = 0; i < lines; i++) {
+			Long productId = TestProducts.create(productService, "Query count product " + i, BigDecimal.valueOf(10 + i), 100);
+			cartService.addItemToCart(cartId, productId, 2);
+		}
+		return cartId;
+	}
+}
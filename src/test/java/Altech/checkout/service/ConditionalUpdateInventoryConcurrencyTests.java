@@ -0,0 +1,10 @@
+package Altech.checkout.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the oversell check against the conditional UPDATE on products used when the ledger is off.
+ */
+@SpringBootTest(properties = "checkout.inventory.ledger.enabled=false")
+class ConditionalUpdateInventoryConcurrencyTests extends InventoryConcurrencyTests {
+}
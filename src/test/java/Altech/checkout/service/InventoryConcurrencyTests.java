@@ -0,0 +1,76 @@
+package Altech.checkout.service;
+
+import Altech.checkout.TestProducts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class InventoryConcurrencyTests {
+
+	private static final int STOCK = 50;
+	private static final int CARTS = 40;
+	private static final int ADDS_PER_CART = 5;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Test
+	void concurrentCartsNeverOversellAProduct() throws Exception {
+		Long productId = TestProducts.create(productService, "Hot product", BigDecimal.TEN, STOCK);
+
+		List<Long> cartIds = new ArrayList<>();
+		for (int i = 0; i < CARTS; i++) {
+			cartIds.add(cartService.createCart().getId());
+		}
+
+		AtomicInteger reserved = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		List<Future<?>> futures = new ArrayList<>();
+		for (Long cartId : cartIds) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < ADDS_PER_CART; i++) {
+					try {
+						cartService.addItemToCart(cartId, productId, 1);
+						reserved.incrementAndGet();
+					} catch (IllegalArgumentException e) {
+						rejected.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		int unitsInCarts = cartIds.stream()
+				.flatMap(cartId -> cartService.getCartById(cartId).getItems().stream())
+				.mapToInt(item -> item.getQuantity())
+				.sum();
+
+		assertEquals(STOCK, reserved.get());
+		assertEquals(CARTS * ADDS_PER_CART - STOCK, rejected.get());
+		assertEquals(STOCK, unitsInCarts);
+		assertEquals(0, inventoryService.available(productId));
+	}
+}
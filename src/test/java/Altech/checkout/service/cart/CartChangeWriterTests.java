@@ -0,0 +1,100 @@
+package Altech.checkout.service.cart;
+
+import Altech.checkout.TestProducts;
+import Altech.checkout.dto.CartItemOperation;
+import Altech.checkout.dto.CartLine;
+import Altech.checkout.model.Cart;
+import Altech.checkout.model.CartItem;
+import Altech.checkout.model.Discount;
+import Altech.checkout.service.CartService;
+import Altech.checkout.service.DiscountService;
+import Altech.checkout.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CartChangeWriterTests {
+
+	private static final int PRODUCTS = 6;
+	private static final int STEPS = 200;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private DiscountService discountService;
+
+	@Test
+	void writtenLinesMatchTheCartAfterRandomChanges() {
+		Discount discount = new Discount();
+		discount.setName("Change writer test discount");
+		discount.setDescription("10% off from 3 units");
+		discount.setType(Discount.DiscountType.PERCENTAGE);
+		discount.setValue(BigDecimal.TEN);
+		discount.setMinQuantity(3);
+		discountService.createDiscount(discount);
+
+		List<Long> productIds = new ArrayList<>();
+		for (int i = 0; i < PRODUCTS; i++) {
+			productIds.add(TestProducts.create(productService, "Change writer product " + i, BigDecimal.valueOf(5 + i), 10_000));
+		}
+		Long cartId = cartService.createCart().getId();
+
+		Random random = new Random(42);
+		for (int step = 0; step < STEPS; step++) {
+			List<CartItem> items = cartService.getCartById(cartId).getItems();
+			CartItem item = items.isEmpty() ? null : items.get(random.nextInt(items.size()));
+			int choice = item == null ? 0 : random.nextInt(5);
+			Cart changed = switch (choice) {
+				case 0 -> cartService.addItemToCart(cartId, productIds.get(random.nextInt(PRODUCTS)), 1 + random.nextInt(3));
+				case 1 -> cartService.updateCartItemQuantity(cartId, item.getId(), 1 + random.nextInt(5));
+				case 2 -> cartService.removeItemFromCart(cartId, item.getId());
+				case 3 -> cartService.applyItemOperations(cartId, List.of(
+						operation(CartItemOperation.Type.REMOVE, null, item.getId(), null),
+						operation(CartItemOperation.Type.ADD, item.getProduct().getId(), null, 2)));
+				default -> cartService.applyDiscounts(cartId);
+			};
+
+			// Only the touched lines were written, reading the cart back must still give every line
+			Cart stored = cartService.getCartById(cartId);
+			assertSameLines(changed.getItems().stream().map(CartLine::of).toList(),
+					stored.getItems().stream().map(CartLine::of).toList(), step);
+			assertEquals(0, changed.getTotalAmount().compareTo(stored.getTotalAmount()), "total after step " + step);
+		}
+	}
+
+	private static void assertSameLines(List<CartLine> expected, List<CartLine> actual, int step) {
+		List<CartLine> sortedExpected = expected.stream().sorted(Comparator.comparing(CartLine::productId)).toList();
+		List<CartLine> sortedActual = actual.stream().sorted(Comparator.comparing(CartLine::productId)).toList();
+		assertEquals(sortedExpected.size(), sortedActual.size(), "lines after step " + step);
+		for (int i = 0; i < sortedExpected.size(); i++) {
+			CartLine line = sortedExpected.get(i);
+			CartLine stored = sortedActual.get(i);
+			assertEquals(line.productId(), stored.productId(), "product after step " + step);
+			assertTrue(line.sameQuantity(stored), "quantity after step " + step + ": " + stored);
+			assertTrue(line.sameDiscount(stored), "discount after step " + step + ": " + stored);
+		}
+	}
+
+	private static CartItemOperation operation(CartItemOperation.Type type, Long productId, Long itemId, Integer quantity) {
+		CartItemOperation operation = new CartItemOperation();
+		operation.setType(type);
+		operation.setProductId(productId);
+		operation.setItemId(itemId);
+		operation.setQuantity(quantity);
+		return operation;
+	}
+}
@@ -0,0 +1,45 @@
+package Altech.checkout.service.cart;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CartCommandExecutorTests {
+
+	@Test
+	void onlyChangesOfTheSameCartWait() throws Exception {
+		CartCommandExecutor executor = new CartCommandExecutor(Duration.ofMillis(50));
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<Void> held = CompletableFuture.runAsync(() -> executor.execute(1L, () -> {
+			running.countDown();
+			await(release);
+			return null;
+		}));
+		running.await(5, TimeUnit.SECONDS);
+
+		assertEquals("other cart", executor.execute(2L, () -> "other cart"));
+		assertThrows(CannotAcquireLockException.class, () -> executor.execute(1L, () -> "same cart"));
+
+		release.countDown();
+		held.get(5, TimeUnit.SECONDS);
+		assertEquals("same cart", executor.execute(1L, () -> "same cart"));
+		assertEquals(0, executor.getStats().get("activeCarts"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
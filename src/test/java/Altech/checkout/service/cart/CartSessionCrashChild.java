@@ -0,0 +1,74 @@
+package Altech.checkout.service.cart;
+
+import Altech.checkout.CheckoutApplication;
+import Altech.checkout.model.Cart;
+import Altech.checkout.service.CartService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.ConfigurableTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+/**
+ * Started in its own JVM by {@link CartSessionCrashTests}: coalesces a few quantity changes, then
+ * halts the process in the middle of flushing them.
+ */
+public class CartSessionCrashChild {
+
+	static final String WAL_PATH = "${java.io.tmpdir}/checkout/cart-session-crash-tests.wal";
+	static final int[] QUANTITIES = {3, 7, 4, 6};
+	static final int HALT_STATUS = 99;
+
+	enum CrashPoint {
+		BEFORE_COMMIT,
+		AFTER_COMMIT
+	}
+
+	public static void main(String[] args) {
+		Long cartId = Long.valueOf(args[0]);
+		Long productId = Long.valueOf(args[1]);
+		CrashPoint crashPoint = CrashPoint.valueOf(args[2]);
+
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(CheckoutApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"checkout.cart-session.enabled=true",
+						"checkout.cart-session.wal-path=" + WAL_PATH,
+						"checkout.cart-session.sweep-interval-ms=3600000")
+				.run();
+		CartService cartService = context.getBean(CartService.class);
+		CartSessionStore cartSessionStore = context.getBean(CartSessionStore.class);
+
+		Cart cart = cartService.addItemToCart(cartId, productId, 1);
+		Long itemId = cart.getItems().get(0).getId();
+		for (int quantity : QUANTITIES) {
+			cartService.updateCartItemQuantity(cartId, itemId, quantity);
+		}
+
+		// Only the flush below runs on this thread, scheduled transactions are left alone
+		Thread flushThread = Thread.currentThread();
+		ConfigurableTransactionManager transactionManager =
+				(ConfigurableTransactionManager) context.getBean(PlatformTransactionManager.class);
+		transactionManager.addListener(new TransactionExecutionListener() {
+			@Override
+			public void beforeCommit(TransactionExecution transaction) {
+				if (crashPoint == CrashPoint.BEFORE_COMMIT && Thread.currentThread() == flushThread) {
+					Runtime.getRuntime().halt(HALT_STATUS);
+				}
+			}
+
+			@Override
+			public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+				if (crashPoint == CrashPoint.AFTER_COMMIT && Thread.currentThread() == flushThread) {
+					Runtime.getRuntime().halt(HALT_STATUS);
+				}
+			}
+		});
+		cartSessionStore.close(cartId);
+
+		// Reaching this line means the flush never committed anything
+		System.exit(1);
+	}
+}
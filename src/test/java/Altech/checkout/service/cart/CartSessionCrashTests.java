@@ -0,0 +1,79 @@
+package Altech.checkout.service.cart;
+
+import Altech.checkout.TestProducts;
+import Altech.checkout.model.Cart;
+import Altech.checkout.service.CartService;
+import Altech.checkout.service.InventoryService;
+import Altech.checkout.service.ProductService;
+import Altech.checkout.service.inventory.InventoryLedger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+		"checkout.cart-session.enabled=true",
+		"checkout.cart-session.wal-path=" + CartSessionCrashChild.WAL_PATH,
+		// No sweep flushes or checkpoints in the middle of the test
+		"checkout.cart-session.sweep-interval-ms=3600000"
+})
+class CartSessionCrashTests {
+
+	private static final int STOCK = 20;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private InventoryLedger inventoryLedger;
+
+	@Autowired
+	private CartSessionStore cartSessionStore;
+
+	@Test
+	void changesAreReplayedWhenTheProcessDiesBeforeTheFlushCommits() throws Exception {
+		assertLastQuantitySurvives(CartSessionCrashChild.CrashPoint.BEFORE_COMMIT);
+	}
+
+	@Test
+	void changesAreNotReplayedTwiceWhenTheProcessDiesAfterTheFlushCommits() throws Exception {
+		assertLastQuantitySurvives(CartSessionCrashChild.CrashPoint.AFTER_COMMIT);
+	}
+
+	private void assertLastQuantitySurvives(CartSessionCrashChild.CrashPoint crashPoint) throws Exception {
+		Long productId = TestProducts.create(productService, "Crash test product", BigDecimal.TEN, STOCK);
+		Long cartId = cartService.createCart().getId();
+
+		Process child = new ProcessBuilder(
+				Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				"-cp", System.getProperty("java.class.path"),
+				CartSessionCrashChild.class.getName(),
+				cartId.toString(), productId.toString(), crashPoint.name())
+				.inheritIO()
+				.start();
+		assertTrue(child.waitFor(2, TimeUnit.MINUTES));
+		assertEquals(CartSessionCrashChild.HALT_STATUS, child.exitValue());
+
+		// Stock taken by the child is only known to the database
+		inventoryLedger.invalidate(productId);
+		cartSessionStore.recover();
+
+		int lastQuantity = CartSessionCrashChild.QUANTITIES[CartSessionCrashChild.QUANTITIES.length - 1];
+		Cart cart = cartService.getCartById(cartId);
+		assertEquals(1, cart.getItems().size());
+		assertEquals(lastQuantity, cart.getItems().get(0).getQuantity());
+		assertEquals(STOCK - lastQuantity, inventoryService.available(productId));
+	}
+}
@@ -0,0 +1,59 @@
+package Altech.checkout.service.cart;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CartSessionWalTests {
+
+	// Two records per segment
+	private static final long SEGMENT_BYTES = 2 * 37;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void checkpointKeepsSegmentsOfCartsWithUnflushedChanges() throws Exception {
+		Path path = directory.resolve("carts.wal");
+		try (CartSessionWal wal = new CartSessionWal(path, true, SEGMENT_BYTES)) {
+			wal.appendQuantity(1, 0, 10, 2);
+			wal.appendQuantity(2, 0, 20, 3);
+			for (int quantity = 1; quantity <= 6; quantity++) {
+				wal.appendQuantity(1, 0, 10, quantity);
+			}
+			wal.appendFlushed(1, 1);
+			assertEquals(5, wal.getSegments());
+
+			// Cart 2 is still pending in the first segment
+			assertEquals(0, wal.checkpoint());
+
+			wal.appendFlushed(2, 1);
+			assertEquals(4, wal.checkpoint());
+			assertEquals(1, wal.getSegments());
+		}
+	}
+
+	@Test
+	void nextRunReadsTheChangesLeftInEverySegment() throws Exception {
+		Path path = directory.resolve("carts.wal");
+		try (CartSessionWal wal = new CartSessionWal(path, true, SEGMENT_BYTES)) {
+			wal.appendQuantity(1, 0, 10, 2);
+			wal.appendQuantity(2, 0, 20, 3);
+			wal.appendFlushed(1, 1);
+			wal.appendQuantity(2, 0, 20, 5);
+		}
+
+		try (CartSessionWal wal = new CartSessionWal(path, true, SEGMENT_BYTES)) {
+			List<CartSessionWal.Entry> entries = wal.readRecovered();
+			assertEquals(4, entries.size());
+			assertEquals(5, entries.get(3).quantity());
+
+			wal.dropRecovered();
+			assertEquals(0, wal.readRecovered().size());
+		}
+	}
+}
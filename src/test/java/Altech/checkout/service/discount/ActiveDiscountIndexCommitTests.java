@@ -0,0 +1,64 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Discount;
+import Altech.checkout.service.DiscountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ActiveDiscountIndexCommitTests {
+
+	@Autowired
+	private DiscountService discountService;
+
+	@Autowired
+	private ActiveDiscountIndex activeDiscountIndex;
+
+	@Test
+	void discountIsIndexedOnceCommitted() {
+		Long id = discountService.createDiscount(discount("Committed discount", Set.of())).getId();
+
+		assertTrue(ruleIds().contains(id));
+	}
+
+	@Test
+	void failedCreateLeavesIndexUnchanged() {
+		ActiveDiscounts before = activeDiscountIndex.activeDiscounts();
+
+		// No such product, the discount_products foreign key fails the commit
+		assertThrows(DataAccessException.class,
+				() -> discountService.createDiscount(discount("Rolled back discount", Set.of(Long.MAX_VALUE))));
+
+		ActiveDiscounts after = activeDiscountIndex.activeDiscounts();
+		assertEquals(before.getGeneration(), after.getGeneration());
+		assertEquals(ruleIds(before), ruleIds(after));
+	}
+
+	private List<Long> ruleIds() {
+		return ruleIds(activeDiscountIndex.activeDiscounts());
+	}
+
+	private static List<Long> ruleIds(ActiveDiscounts discounts) {
+		return discounts.all().stream().map(DiscountRule::getDiscountId).toList();
+	}
+
+	private static Discount discount(String name, Set<Long> productIds) {
+		Discount discount = new Discount();
+		discount.setName(name);
+		discount.setDescription("10% off");
+		discount.setType(Discount.DiscountType.PERCENTAGE);
+		discount.setValue(BigDecimal.TEN);
+		discount.setProductIds(productIds);
+		return discount;
+	}
+}
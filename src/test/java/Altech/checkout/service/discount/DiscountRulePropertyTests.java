@@ -0,0 +1,184 @@
+package Altech.checkout.service.discount;
+
+import Altech.checkout.model.Cart;
+import Altech.checkout.model.CartItem;
+import Altech.checkout.model.Discount;
+import Altech.checkout.model.Product;
+import Altech.checkout.service.pricing.CartPricer;
+import Altech.checkout.service.pricing.PricedCart;
+import Altech.checkout.service.pricing.PricedLine;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.IntRange;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the cent-based rules against the {@code BigDecimal} formulas they replaced: every allocated
+ * amount must equal the {@code BigDecimal} result rounded half up to the cent.
+ */
+class DiscountRulePropertyTests {
+
+	private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+	@Property
+	void percentageMatchesBigDecimal(@ForAll("groups") List<Line> group, @ForAll("percentages") BigDecimal value) {
+		BigDecimal rate = value.divide(HUNDRED, 2, RoundingMode.HALF_UP);
+		BigDecimal[] expected = new BigDecimal[group.size()];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = group.get(i).originalTotal().multiply(rate);
+		}
+		assertMatches(expected, allocate(Discount.DiscountType.PERCENTAGE, value, null, group));
+	}
+
+	@Property
+	void fixedAmountMatchesBigDecimal(@ForAll("groups") List<Line> group, @ForAll("amounts") BigDecimal value) {
+		BigDecimal totalOriginalPrice = group.stream().map(Line::originalTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+		BigDecimal applicableAmount = value.min(totalOriginalPrice);
+		BigDecimal[] expected = new BigDecimal[group.size()];
+		for (int i = 0; i < expected.length; i++) {
+			BigDecimal ratio = group.get(i).originalTotal().divide(totalOriginalPrice, 4, RoundingMode.HALF_UP);
+			expected[i] = applicableAmount.multiply(ratio);
+		}
+		assertMatches(expected, allocate(Discount.DiscountType.FIXED_AMOUNT, value, null, group));
+	}
+
+	@Property
+	void buyXGetYFreeMatchesBigDecimal(@ForAll("groups") List<Line> group, @ForAll @IntRange(min = 1, max = 5) int minQuantity) {
+		BigDecimal[] expected = new BigDecimal[group.size()];
+		int remainingFreeItems = totalQuantity(group) / (minQuantity + 1);
+		for (int i : byQuantityDescending(group)) {
+			if (remainingFreeItems <= 0) break;
+
+			int freeForThisItem = Math.min(remainingFreeItems, group.get(i).quantity());
+			expected[i] = group.get(i).unitPrice().multiply(BigDecimal.valueOf(freeForThisItem));
+			remainingFreeItems -= freeForThisItem;
+		}
+		assertMatches(expected, allocate(Discount.DiscountType.BUY_X_GET_Y_FREE, BigDecimal.ZERO, minQuantity, group));
+	}
+
+	@Property
+	void secondUnitPercentageMatchesBigDecimal(@ForAll("groups") List<Line> group, @ForAll("percentages") BigDecimal value) {
+		BigDecimal remainingRate = BigDecimal.ONE.subtract(value.divide(HUNDRED, 2, RoundingMode.HALF_UP));
+		BigDecimal[] expected = new BigDecimal[group.size()];
+		int remainingDiscountedItems = totalQuantity(group) / 2;
+		for (int i : byQuantityDescending(group)) {
+			if (remainingDiscountedItems <= 0) break;
+
+			int discountedForThisItem = Math.min(remainingDiscountedItems, group.get(i).quantity() / 2);
+			expected[i] = group.get(i).unitPrice()
+					.multiply(remainingRate)
+					.multiply(BigDecimal.valueOf(discountedForThisItem));
+			remainingDiscountedItems -= discountedForThisItem;
+		}
+		assertMatches(expected, allocate(Discount.DiscountType.SECOND_UNIT_PERCENTAGE, value, null, group));
+	}
+
+	@Property
+	void cartTotalsAreSumsOfRoundedLines(@ForAll("groups") List<Line> lines,
+										 @ForAll("percentages") BigDecimal percentage,
+										 @ForAll("amounts") BigDecimal amount) {
+		Cart cart = new Cart();
+		for (int i = 0; i < lines.size(); i++) {
+			Product product = new Product();
+			// Two products so some lines share a product group
+			product.setId((long) (i % 2));
+			CartItem item = new CartItem();
+			item.setProduct(product);
+			item.setUnitPrice(lines.get(i).unitPrice());
+			item.setQuantity(lines.get(i).quantity());
+			cart.getItems().add(item);
+		}
+		List<DiscountRule> rules = List.of(
+				compile(1L, Discount.DiscountType.PERCENTAGE, percentage, null),
+				compile(2L, Discount.DiscountType.FIXED_AMOUNT, amount, null));
+
+		PricedCart pricedCart = new CartPricer().price(cart, new ActiveDiscounts(1, rules));
+
+		BigDecimal expectedTotal = BigDecimal.ZERO;
+		for (PricedLine line : pricedCart.lines()) {
+			BigDecimal original = line.item().getUnitPrice().multiply(BigDecimal.valueOf(line.item().getQuantity()));
+			assertEquals(original.subtract(line.discountAmount()), line.totalPrice());
+			expectedTotal = expectedTotal.add(line.totalPrice());
+		}
+		assertEquals(expectedTotal, pricedCart.totalAmount());
+	}
+
+	@Provide
+	Arbitrary<List<Line>> groups() {
+		Arbitrary<BigDecimal> unitPrices = Arbitraries.longs().between(1, 1_000_000).map(cents -> BigDecimal.valueOf(cents, 2));
+		Arbitrary<Integer> quantities = Arbitraries.integers().between(1, 50);
+		return Combinators.combine(unitPrices, quantities).as(Line::new).list().ofMinSize(1).ofMaxSize(6);
+	}
+
+	@Provide
+	Arbitrary<BigDecimal> percentages() {
+		return Arbitraries.integers().between(0, 10_000).map(hundredths -> BigDecimal.valueOf(hundredths, 2));
+	}
+
+	@Provide
+	Arbitrary<BigDecimal> amounts() {
+		return Arbitraries.longs().between(0, 500_000).map(cents -> BigDecimal.valueOf(cents, 2));
+	}
+
+	private static long[] allocate(Discount.DiscountType type, BigDecimal value, Integer minQuantity, List<Line> group) {
+		long[] unitPrices = new long[group.size()];
+		int[] quantities = new int[group.size()];
+		for (int i = 0; i < unitPrices.length; i++) {
+			unitPrices[i] = group.get(i).unitPrice().unscaledValue().longValueExact();
+			quantities[i] = group.get(i).quantity();
+		}
+		return compile(1L, type, value, minQuantity).allocate(unitPrices, quantities, totalQuantity(group));
+	}
+
+	private static DiscountRule compile(Long id, Discount.DiscountType type, BigDecimal value, Integer minQuantity) {
+		Discount discount = new Discount();
+		discount.setId(id);
+		discount.setName(type.name());
+		discount.setType(type);
+		discount.setValue(value);
+		discount.setMinQuantity(minQuantity);
+		discount.setProductIds(Set.of());
+		discount.setCategories(Set.of());
+		return switch (type) {
+			case PERCENTAGE -> new PercentageDiscountRule(discount);
+			case FIXED_AMOUNT -> new FixedAmountDiscountRule(discount);
+			case BUY_X_GET_Y_FREE -> new BuyXGetYFreeDiscountRule(discount);
+			case SECOND_UNIT_PERCENTAGE -> new SecondUnitPercentageDiscountRule(discount);
+		};
+	}
+
+	private static void assertMatches(BigDecimal[] expected, long[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			if (expected[i] == null) {
+				assertEquals(DiscountRule.UNTOUCHED, actual[i]);
+			} else {
+				assertEquals(expected[i].setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact(), actual[i]);
+			}
+		}
+	}
+
+	private static int totalQuantity(List<Line> group) {
+		return group.stream().mapToInt(Line::quantity).sum();
+	}
+
+	private static Integer[] byQuantityDescending(List<Line> group) {
+		Integer[] order = new Integer[group.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparing((Integer i) -> group.get(i).quantity()).reversed());
+		return order;
+	}
+
+	record Line(BigDecimal unitPrice, int quantity) {
+
+		BigDecimal originalTotal() {
+			return unitPrice.multiply(BigDecimal.valueOf(quantity));
+		}
+	}
+}
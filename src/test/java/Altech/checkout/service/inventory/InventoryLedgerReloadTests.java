@@ -0,0 +1,75 @@
+package Altech.checkout.service.inventory;
+
+import Altech.checkout.TestProducts;
+import Altech.checkout.service.InventoryService;
+import Altech.checkout.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class InventoryLedgerReloadTests {
+
+	private static final int STOCK = 10;
+
+	@Autowired
+	private InventoryService inventoryService;
+
+	@Autowired
+	private InventoryLedger inventoryLedger;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void releaseIntoAnUnloadedCounterIsCountedOnce() {
+		Long productId = createProduct();
+		inventoryLedger.invalidate(productId);
+
+		transactionTemplate.executeWithoutResult(status -> inventoryService.release(productId, 3));
+
+		// Loaded after the commit, the journal row is already part of the loaded stock
+		assertEquals(STOCK + 3, inventoryService.available(productId));
+	}
+
+	@Test
+	void releaseIntoACounterLoadedBeforeTheCommitIsCounted() {
+		Long productId = createProduct();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			inventoryService.release(productId, 3);
+			inventoryLedger.invalidate(productId);
+			// Loaded on another connection, the uncommitted row is not part of it
+			assertEquals(STOCK, CompletableFuture.supplyAsync(() -> inventoryService.available(productId)).join());
+		});
+
+		assertEquals(STOCK + 3, inventoryService.available(productId));
+	}
+
+	@Test
+	void reservationSurvivesAReloadBeforeItsCommit() {
+		Long productId = createProduct();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			assertTrue(inventoryService.reserve(productId, 4));
+			inventoryLedger.invalidate(productId);
+			assertEquals(STOCK, CompletableFuture.supplyAsync(() -> inventoryService.available(productId)).join());
+		});
+
+		assertEquals(STOCK - 4, inventoryService.available(productId));
+	}
+
+	private Long createProduct() {
+		return TestProducts.create(productService, "Ledger reload product", BigDecimal.TEN, STOCK);
+	}
+}